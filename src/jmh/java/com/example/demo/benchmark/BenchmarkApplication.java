@@ -0,0 +1,64 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.support.TestUsers;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Starts the application on a random port and a fresh in-memory database, for
+ * benchmarks that go through the repositories and services.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return run(
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+    }
+
+    /**
+     * Same as {@link #start()} but keeps the logging configuration of {@code profile},
+     * for benchmarks that measure the logging itself.
+     */
+    static ConfigurableApplicationContext startWithProfile(String profile) {
+        return run("--spring.profiles.active=" + profile);
+    }
+
+    private static ConfigurableApplicationContext run(String... args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                // Vaadin needs a web application context, the server only listens on a free port
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.sql.init.mode=never",
+                "--app.users.search-index.enabled=false",
+                "--vaadin.launch-browser=false"));
+        arguments.addAll(List.of(args));
+        // Arguments, unlike default properties, take precedence over application.properties
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .run(arguments.toArray(String[]::new));
+    }
+
+    /**
+     * Inserts {@code rows} users with ids 1..rows, see {@link TestUsers#insert}.
+     */
+    static void seed(ConfigurableApplicationContext context, int rows) {
+        context.getBean(JdbcTemplate.class).execute((ConnectionCallback<Void>) connection -> {
+            TestUsers.insert(connection, rows, LocalDateTime.of(2024, 1, 1, 0, 0));
+            return null;
+        });
+    }
+}
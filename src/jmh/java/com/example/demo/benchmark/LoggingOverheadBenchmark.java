@@ -0,0 +1,91 @@
+package com.example.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request latency of the user API with the logging of each profile: {@code default} is
+ * the synchronous console pattern with SQL and bind parameters, {@code production} the
+ * async JSON appender with sampling. Both write stdout to the same file under
+ * {@code target}, so the difference is the logging pipeline and not the terminal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Threads(8)
+public class LoggingOverheadBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"default", "production"})
+    public String profile;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private PrintStream stdout;
+    private PrintStream logFile;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path file = Path.of("target", "logging-benchmark-" + profile + ".log");
+        Files.createDirectories(file.getParent());
+        stdout = System.out;
+        logFile = new PrintStream(new FileOutputStream(file.toFile()), false);
+        System.setOut(logFile);
+
+        context = BenchmarkApplication.startWithProfile(profile);
+        BenchmarkApplication.seed(context, ROWS);
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port
+                + context.getEnvironment().getProperty("server.servlet.context-path", "") + "/api/v1/users";
+        client = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.setOut(stdout);
+        logFile.close();
+    }
+
+    @Benchmark
+    public int getUser() throws IOException, InterruptedException {
+        long id = ThreadLocalRandom.current().nextLong(1, ROWS + 1);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int createUser() throws IOException, InterruptedException {
+        long n = sequence.incrementAndGet();
+        String body = """
+                {"first_name":"Bench","last_name":"Mark","email":"bench%d@example.com",\
+                "phone_number":"+628%09d","status":"ACTIVE"}"""
+                .formatted(n, n % 1_000_000_000);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
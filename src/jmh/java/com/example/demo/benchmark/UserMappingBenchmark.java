@@ -0,0 +1,98 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.constant.UserStatus;
+import com.example.demo.domain.dto.UserReportDTO;
+import com.example.demo.domain.dto.request.UserRequest;
+import com.example.demo.domain.dto.response.UserResponse;
+import com.example.demo.domain.entity.user.User;
+import com.example.demo.domain.mapper.UserMapper;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row mapping cost of the reflective ModelMapper the services used before
+ * against the generated {@link UserMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+
+    private User user;
+    private UserRequest request;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(42L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@example.com")
+                .phoneNumber("+1234567890")
+                .status(UserStatus.ACTIVE)
+                .createdAt(LocalDateTime.now().minusDays(3))
+                .updatedAt(LocalDateTime.now())
+                .build();
+        request = UserRequest.builder()
+                .firstName("Jane")
+                .lastName("Smith")
+                .email("jane.smith@example.com")
+                .phoneNumber("+1987654321")
+                .status(UserStatus.INACTIVE)
+                .build();
+    }
+
+    @Benchmark
+    public UserResponse modelMapperToResponse() {
+        return modelMapper.map(user, UserResponse.class);
+    }
+
+    @Benchmark
+    public UserResponse mapstructToResponse() {
+        return userMapper.toResponse(user);
+    }
+
+    @Benchmark
+    public UserReportDTO modelMapperToReportRow() {
+        return modelMapper.map(user, UserReportDTO.class);
+    }
+
+    @Benchmark
+    public UserReportDTO mapstructToReportRow() {
+        return userMapper.toReportDTO(user);
+    }
+
+    @Benchmark
+    public User modelMapperToEntity() {
+        return modelMapper.map(request, User.class);
+    }
+
+    @Benchmark
+    public User mapstructToEntity() {
+        return userMapper.toEntity(request);
+    }
+
+    @Benchmark
+    public User modelMapperUpdateEntity() {
+        User target = new User();
+        modelMapper.map(request, target);
+        return target;
+    }
+
+    @Benchmark
+    public User mapstructUpdateEntity() {
+        User target = new User();
+        userMapper.updateEntity(request, target);
+        return target;
+    }
+}
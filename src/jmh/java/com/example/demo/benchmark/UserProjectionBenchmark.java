@@ -0,0 +1,98 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.domain.dto.UserReportDTO;
+import com.example.demo.domain.dto.response.UserResponse;
+import com.example.demo.domain.entity.user.User;
+import com.example.demo.domain.entity.user.UserRepository;
+import com.example.demo.domain.mapper.UserMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.jpa.HibernateHints;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Managed entities mapped to DTOs against constructor expression projections, for a
+ * large list page and a full report cursor, each in a read-only transaction like the
+ * services. Run with {@code -prof gc} to compare the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class UserProjectionBenchmark {
+
+    private static final int ROWS = 20_000;
+
+    private final Pageable page = PageRequest.of(10, 1000, Sort.by("id"));
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private UserMapper userMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, ROWS);
+        userRepository = context.getBean(UserRepository.class);
+        userMapper = context.getBean(UserMapper.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<UserResponse> entityPage() {
+        return readOnly.execute(status -> userRepository.findAll(page).map(userMapper::toResponse));
+    }
+
+    @Benchmark
+    public Page<UserResponse> projectionPage() {
+        return readOnly.execute(status -> userRepository.findResponses(page));
+    }
+
+    @Benchmark
+    public void entityReport(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<User> users = entityManager
+                    .createQuery("SELECT u FROM User u ORDER BY u.id", User.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, 500)
+                    .getResultStream()) {
+                users.forEach(user -> {
+                    blackhole.consume(userMapper.toReportDTO(user));
+                    entityManager.detach(user);
+                });
+            }
+        });
+    }
+
+    @Benchmark
+    public void projectionReport(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<UserReportDTO> rows = userRepository.streamReportRows(null)) {
+                rows.forEach(blackhole::consume);
+            }
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.service.ReportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * End-to-end report generation through {@code ReportServiceImpl}: the Jasper PDF fill
+ * and export, and the POI Excel workbook, both fed from the report cursor over
+ * {@code rows} users. The report cache is bypassed and the output is discarded, so
+ * the score is generation time alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class UserReportBenchmark {
+
+    private static final LongConsumer NO_PROGRESS = rows -> {
+    };
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ReportService reportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, rows);
+        reportService = context.getBean(ReportService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long pdf() throws IOException {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        reportService.writeUserReport(null, outputStream, NO_PROGRESS);
+        return outputStream.count;
+    }
+
+    @Benchmark
+    public long excel() throws IOException {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        reportService.writeUserExcelReport(null, outputStream, NO_PROGRESS);
+        return outputStream.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            count += length;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.domain.dto.response.UserResponse;
+import com.example.demo.domain.entity.user.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of {@code UserRepository.search}, the {@code LIKE '%x%'} query behind the
+ * user list, against an embedded H2 holding {@code rows} users. {@code searchText}
+ * covers a common name (1 in 8 rows), a single email and a miss; the page count
+ * query is included, as in the list endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class UserSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"john", "user4242@", "nobody"})
+    public String searchText;
+
+    private final Pageable firstPage = PageRequest.of(0, 20, Sort.by("id"));
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, rows);
+        userRepository = context.getBean(UserRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<UserResponse> search() {
+        return userRepository.search(searchText, firstPage);
+    }
+}
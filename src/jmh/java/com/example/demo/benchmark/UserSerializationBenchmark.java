@@ -0,0 +1,75 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.AppConfig;
+import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.UserStatus;
+import com.example.demo.domain.dto.response.UserResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Jackson cost of a user list response body, {@code BaseResponse<List<UserResponse>>},
+ * with the application's {@link ObjectMapper} for a default page, a large page and a
+ * full batch. {@code deserialize} reads the same body back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+    @Param({"20", "100", "1000"})
+    public int users;
+
+    private final ObjectMapper objectMapper = new AppConfig().objectMapper();
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private BaseResponse<List<UserResponse>> response;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        TypeReference<BaseResponse<List<UserResponse>>> type = new TypeReference<>() {
+        };
+        writer = objectMapper.writerFor(type);
+        reader = objectMapper.readerFor(type);
+        LocalDateTime now = LocalDateTime.now();
+        response = BaseResponse.ok(LongStream.rangeClosed(1, users)
+                .mapToObj(id -> UserResponse.builder()
+                        .id(id)
+                        .firstName("John")
+                        .lastName("Doe")
+                        .email("john.doe" + id + "@example.com")
+                        .phoneNumber("+1234567890")
+                        .status(UserStatus.ACTIVE)
+                        .createdAt(now.minusDays(3))
+                        .updatedAt(now)
+                        .version(id % 5)
+                        .build())
+                .toList());
+        json = writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public BaseResponse<List<UserResponse>> deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
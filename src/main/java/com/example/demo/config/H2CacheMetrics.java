@@ -0,0 +1,61 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Page cache and store size of the embedded H2 database, read from
+ * {@code INFORMATION_SCHEMA.SETTINGS} when the registry is scraped. An in-memory
+ * database has no page cache and reports NaN.
+ */
+@Component
+@Slf4j
+public class H2CacheMetrics implements MeterBinder {
+
+    private static final double MEGABYTE = 1024 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public H2CacheMetrics(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("h2.cache.size", this, metrics -> metrics.setting("info.CACHE_SIZE") * MEGABYTE)
+                .description("Memory used by the H2 page cache")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        Gauge.builder("h2.cache.max", this, metrics -> metrics.setting("info.CACHE_MAX_SIZE") * MEGABYTE)
+                .description("Configured maximum of the H2 page cache")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        Gauge.builder("h2.cache.hit.ratio", this, metrics -> metrics.setting("info.CACHE_HIT_RATIO") / 100)
+                .description("Share of page reads served by the H2 page cache")
+                .register(registry);
+        Gauge.builder("h2.file.size", this, metrics -> metrics.setting("info.FILE_SIZE"))
+                .description("Size of the H2 database file")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    private double setting(String name) {
+        try {
+            List<String> values = jdbcTemplate.queryForList(
+                    "SELECT SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME = ?",
+                    String.class, name);
+            return values.isEmpty() ? Double.NaN : Double.parseDouble(values.get(0));
+        } catch (DataAccessException | NumberFormatException e) {
+            log.debug("Could not read H2 setting {}", name, e);
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.config;
+
+import com.example.demo.domain.entity.user.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the user id sequence past the ids already in the table.
+ * <p>
+ * Databases created while ids came from an identity column start the new sequence at
+ * 1. Hibernate's pooled optimizer hands out the block ending at the sequence value,
+ * so the sequence has to be at least {@code max(id) + allocationSize}. Depending on
+ * the {@link EntityManagerFactory} makes this run after the schema update created
+ * the sequence and before any request can insert.
+ */
+@Component
+@Slf4j
+public class UserSequenceInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequence() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
+        List<Long> nextValue = jdbcTemplate.queryForList(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES " +
+                        "WHERE SEQUENCE_SCHEMA = SCHEMA() AND SEQUENCE_NAME = UPPER(?)",
+                Long.class, User.ID_SEQUENCE);
+        long required = maxId + User.ID_ALLOCATION_SIZE;
+        if (!nextValue.isEmpty() && nextValue.get(0) < required) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + User.ID_SEQUENCE + " RESTART WITH " + required);
+            log.info("Restarted {} at {} to continue after existing id {}", User.ID_SEQUENCE, required, maxId);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.constant;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,6 +16,9 @@ public class BaseResponse<T> {
     private String status;
     private String message;
     private T data;
+    // Classifies an error for metrics, clients only see the message
+    @JsonIgnore
+    private ErrorCode errorCode;
 
     public static <T> BaseResponse<T> ok(T data) {
         return BaseResponse.<T>builder()
@@ -25,11 +29,16 @@ public class BaseResponse<T> {
                 .build();
     }
 
-    public static <T> BaseResponse<T> error(int code, String message) {
+    public static <T> BaseResponse<T> error(int code, ErrorCode errorCode) {
+        return error(code, errorCode, errorCode.getMessage());
+    }
+
+    public static <T> BaseResponse<T> error(int code, ErrorCode errorCode, String message) {
         return BaseResponse.<T>builder()
                 .code(code)
                 .status(AppConstant.ERROR)
                 .message(message)
+                .errorCode(errorCode)
                 .build();
     }
 }
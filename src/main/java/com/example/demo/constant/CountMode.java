@@ -0,0 +1,24 @@
+package com.example.demo.constant;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * How the user listing fills its totals.
+ */
+public enum CountMode {
+    /** Run {@code COUNT(*)} for every request. */
+    EXACT,
+    /** Reuse a recent count for the same search, at most {@code app.users.count-cache.ttl} old. */
+    CACHED,
+    /** Table row estimate from the database statistics, searches fall back to {@link #CACHED}. */
+    ESTIMATE,
+    /** No totals, only whether a next page exists. */
+    NONE;
+
+    public static Optional<CountMode> fromParam(String value) {
+        return Arrays.stream(values())
+                .filter(mode -> mode.name().equalsIgnoreCase(value))
+                .findFirst();
+    }
+}
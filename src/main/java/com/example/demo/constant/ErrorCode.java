@@ -7,6 +7,19 @@ public enum ErrorCode {
     USER_NOT_FOUND("404", "User not found"),
     EMAIL_ALREADY_EXISTS("409", "Email already exists"),
     VALIDATION_ERROR("400", "Validation error"),
+    PRECONDITION_FAILED("412", "User has been modified, reload it and try again"),
+    INVALID_SORT_FIELD("400", "Sort must be one of id, email, created_at, last_name"),
+    INVALID_CURSOR("400", "Invalid cursor"),
+    INVALID_COUNT_MODE("400", "Count must be one of exact, cached, estimate, none"),
+    INVALID_BATCH_SIZE("400", "Batch is empty or exceeds the maximum number of items"),
+    DUPLICATE_BATCH_ITEM("400", "Item appears more than once in the batch"),
+    REPORT_JOB_NOT_FOUND("404", "Report job not found"),
+    REPORT_NOT_READY("409", "Report is not ready"),
+    REPORT_QUEUE_FULL("429", "Too many reports are being generated, try again later"),
+    IMPORT_JOB_NOT_FOUND("404", "Import not found"),
+    IMPORT_NOT_FINISHED("409", "Import is still running"),
+    IMPORT_QUEUE_FULL("429", "Too many imports are running, try again later"),
+    IMPORT_FILE_REQUIRED("400", "A CSV file is required"),
     SYSTEM_ERROR("500", "System error");
 
     private final String code;
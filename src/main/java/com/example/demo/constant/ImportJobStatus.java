@@ -0,0 +1,9 @@
+package com.example.demo.constant;
+
+public enum ImportJobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+    public boolean isFinished() {
+        return this != QUEUED && this != RUNNING;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.constant;
+
+import lombok.Getter;
+
+@Getter
+public enum ReportFormat {
+    PDF("pdf", "application/pdf"),
+    EXCEL("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final String extension;
+    private final String contentType;
+
+    ReportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.constant;
+
+public enum ReportJobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED, TIMED_OUT, CANCELLED;
+
+    public boolean isFinished() {
+        return this != QUEUED && this != RUNNING;
+    }
+}
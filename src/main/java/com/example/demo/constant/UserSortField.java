@@ -0,0 +1,32 @@
+package com.example.demo.constant;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Sort keys accepted by the user listing. Each one is backed by a {@code (column, id)}
+ * index so keyset pagination can seek instead of scanning.
+ */
+@Getter
+public enum UserSortField {
+    ID("id", "id"),
+    EMAIL("email", "email"),
+    CREATED_AT("created_at", "createdAt"),
+    LAST_NAME("last_name", "lastName");
+
+    private final String column;
+    private final String property;
+
+    UserSortField(String column, String property) {
+        this.column = column;
+        this.property = property;
+    }
+
+    public static Optional<UserSortField> fromParam(String value) {
+        return Arrays.stream(values())
+                .filter(field -> field.column.equalsIgnoreCase(value) || field.property.equalsIgnoreCase(value))
+                .findFirst();
+    }
+}
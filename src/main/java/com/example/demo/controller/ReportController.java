@@ -0,0 +1,144 @@
+package com.example.demo.controller;
+
+import com.example.demo.constant.AppConstant;
+import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.ReportFormat;
+import com.example.demo.domain.dto.request.ReportJobRequest;
+import com.example.demo.domain.dto.response.ReportJobResponse;
+import com.example.demo.service.ReportJobService;
+import com.example.demo.service.ReportService;
+import com.example.demo.service.report.CachedReport;
+import com.example.demo.service.report.ReportFile;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+@RestController
+@RequestMapping("/api/v1/reports")
+@Slf4j
+public class ReportController {
+
+    private final ReportService reportService;
+    private final ReportJobService reportJobService;
+
+    public ReportController(ReportService reportService, ReportJobService reportJobService) {
+        this.reportService = reportService;
+        this.reportJobService = reportJobService;
+    }
+
+    @GetMapping("/users/pdf")
+    public ResponseEntity<Resource> downloadPdf(
+            @RequestParam(required = false) String search,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws IOException {
+        log.info("Download user PDF report with search: {}", search);
+        return download(ReportFormat.PDF, search, ifNoneMatch);
+    }
+
+    @GetMapping("/users/excel")
+    public ResponseEntity<Resource> downloadExcel(
+            @RequestParam(required = false) String search,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws IOException {
+        log.info("Download user Excel report with search: {}", search);
+        return download(ReportFormat.EXCEL, search, ifNoneMatch);
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<BaseResponse<ReportJobResponse>> submitJob(
+            @Valid @RequestBody ReportJobRequest request) {
+        log.info("Submit report job with request: {}", request);
+        BaseResponse<ReportJobResponse> response = reportJobService.submitJob(request);
+        if (!response.getStatus().equals(AppConstant.SUCCESS)) {
+            return ResponseEntity.status(response.getCode()).body(response);
+        }
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{id}")
+                        .buildAndExpand(response.getData().getId())
+                        .toUri())
+                .body(response);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<BaseResponse<ReportJobResponse>> getJob(@PathVariable String id) {
+        BaseResponse<ReportJobResponse> response = reportJobService.getJob(id);
+        return ResponseEntity.status(response.getCode()).body(response);
+    }
+
+    @GetMapping("/jobs/{id}/file")
+    public ResponseEntity<?> downloadJobFile(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Download report job: {}", id);
+        BaseResponse<ReportFile> response = reportJobService.getJobFile(id);
+        if (!response.getStatus().equals(AppConstant.SUCCESS)) {
+            return ResponseEntity.status(response.getCode()).body(response);
+        }
+
+        ReportFile file = response.getData();
+        if (matchesETag(ifNoneMatch, file.version())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(file.version()).build();
+        }
+
+        Resource resource = new FileSystemResource(file.path());
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(file.version())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.fileName()).build().toString())
+                .contentType(MediaType.parseMediaType(file.contentType()))
+                .contentLength(file.size())
+                .body(resource);
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<BaseResponse<ReportJobResponse>> cancelJob(@PathVariable String id) {
+        log.info("Cancel report job: {}", id);
+        BaseResponse<ReportJobResponse> response = reportJobService.cancelJob(id);
+        return ResponseEntity.status(response.getCode()).body(response);
+    }
+
+    private ResponseEntity<Resource> download(ReportFormat format, String search, String ifNoneMatch)
+            throws IOException {
+        String searchText = search == null || search.isBlank() ? null : search.trim();
+
+        // Unchanged data is answered from the version alone, without rendering
+        String version = reportService.getReportVersion(format, searchText);
+        if (matchesETag(ifNoneMatch, version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(version).build();
+        }
+
+        CachedReport report = reportService.getReport(format, searchText, rows -> {
+        });
+        return ResponseEntity.ok()
+                .eTag(report.version())
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(format.getExtension()))
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .contentLength(report.size())
+                .body(new InputStreamResource(report.open()));
+    }
+
+    private boolean matchesETag(String ifNoneMatch, String version) {
+        return ifNoneMatch != null && version != null
+                && (ifNoneMatch.trim().equals("*") || ifNoneMatch.contains("\"" + version + "\""));
+    }
+
+    private String attachment(String extension) {
+        String fileName = "users_report_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"))
+                + "." + extension;
+        return ContentDisposition.attachment().filename(fileName).build().toString();
+    }
+}
@@ -2,32 +2,70 @@ package com.example.demo.controller;
 
 import com.example.demo.constant.AppConstant;
 import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.CountMode;
+import com.example.demo.constant.ErrorCode;
+import com.example.demo.constant.UserSortField;
+import com.example.demo.constant.UserStatus;
+import com.example.demo.domain.dto.request.UserBatchUpdateRequest;
 import com.example.demo.domain.dto.request.UserRequest;
+import com.example.demo.domain.dto.response.BatchResult;
+import com.example.demo.domain.dto.response.CursorPage;
+import com.example.demo.domain.dto.response.EmailAvailabilityResponse;
+import com.example.demo.domain.dto.response.SlicePage;
 import com.example.demo.domain.dto.response.UserResponse;
+import com.example.demo.service.UserBatchService;
+import com.example.demo.service.UserExportService;
 import com.example.demo.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/v1/users")
 @Slf4j
 public class UserController {
 
+    // ETags are "<id>-<version>"
+    private static final Pattern USER_ETAG = Pattern.compile("\"(\\d+)-(\\d+)\"");
+    // Servlet async timeouts of zero or less never expire
+    private static final long NO_ASYNC_TIMEOUT = -1;
+
     private final UserService userService;
+    private final UserBatchService userBatchService;
+    private final UserExportService userExportService;
+    private final int maxPageSize;
+    private final Duration streamTimeout;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserBatchService userBatchService,
+                          UserExportService userExportService,
+                          @Value("${app.users.page.max-size:100}") int maxPageSize,
+                          @Value("${app.users.stream.timeout:30m}") Duration streamTimeout) {
         this.userService = userService;
+        this.userBatchService = userBatchService;
+        this.userExportService = userExportService;
+        this.maxPageSize = maxPageSize;
+        this.streamTimeout = streamTimeout;
     }
 
     @PostMapping
@@ -35,56 +73,238 @@ public class UserController {
             @Valid @RequestBody UserRequest request) {
         log.info("Create user with request: {}", request);
         BaseResponse<UserResponse> response = userService.createUser(request);
+        return withETag(response);
+    }
+
+    @PutMapping("/by-email")
+    public ResponseEntity<BaseResponse<UserResponse>> upsertByEmail(
+            @Valid @RequestBody UserRequest request) {
+        log.info("Upsert user with request: {}", request);
+        BaseResponse<UserResponse> response = userService.upsertUser(request);
+        return withETag(response);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BaseResponse<BatchResult<UserResponse>>> createBatch(
+            @RequestBody List<UserRequest> requests) {
+        log.info("Create users in batch, items: {}", requests.size());
+        BaseResponse<BatchResult<UserResponse>> response = userBatchService.createUsers(requests);
+        return ResponseEntity.status(response.getCode()).body(response);
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<BaseResponse<BatchResult<UserResponse>>> updateBatch(
+            @RequestBody List<UserBatchUpdateRequest> requests) {
+        log.info("Update users in batch, items: {}", requests.size());
+        BaseResponse<BatchResult<UserResponse>> response = userBatchService.updateUsers(requests);
+        return ResponseEntity.status(response.getCode()).body(response);
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<BaseResponse<BatchResult<Void>>> deleteBatch(@RequestBody List<Long> ids) {
+        log.info("Delete users in batch, items: {}", ids.size());
+        BaseResponse<BatchResult<Void>> response = userBatchService.deleteUsers(ids);
+        return ResponseEntity.status(response.getCode()).body(response);
+    }
+
+    @GetMapping("/stream")
+    @ResponseStatus(HttpStatus.OK)
+    public WebAsyncTask<Void> stream(
+            @RequestParam(required = false) UserStatus status,
+            @RequestParam(name = "updated_since", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            HttpServletResponse response) {
+        log.info("Stream users with status: {}, updated since: {}", status, updatedSince);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        // Written on an async thread, so the request thread is released straight away. The
+        // export enforces app.users.stream.timeout itself: an async timeout would interrupt
+        // the thread reading the cursor, so it is turned off for this request
+        Instant deadline = Instant.now().plus(streamTimeout);
+        return new WebAsyncTask<>(NO_ASYNC_TIMEOUT, () -> {
+            userExportService.writeUsersNdjson(status, updatedSince, deadline, response.getOutputStream());
+            return null;
+        });
+    }
+
+    @GetMapping("/email-availability")
+    public ResponseEntity<BaseResponse<EmailAvailabilityResponse>> checkEmail(
+            @RequestParam String email,
+            @RequestParam(name = "exclude_id", required = false) Long excludeId) {
+        BaseResponse<EmailAvailabilityResponse> response = userService.isEmailAvailable(email, excludeId);
         return ResponseEntity.status(response.getCode()).body(response);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BaseResponse<UserResponse>> getById(@PathVariable Long id) {
+    public ResponseEntity<BaseResponse<UserResponse>> getById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Get user by id: {}", id);
+        if (ifNoneMatch != null) {
+            // Unchanged users are answered from the version alone, without loading the user
+            BaseResponse<Long> version = userService.getUserVersion(id);
+            if (version.getStatus().equals(AppConstant.SUCCESS)
+                    && matchesETag(ifNoneMatch, eTag(id, version.getData()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag(id, version.getData())).build();
+            }
+        }
         BaseResponse<UserResponse> response = userService.getUserById(id);
-        return ResponseEntity.status(response.getCode()).body(response);
+        return withETag(response);
     }
 
     @GetMapping
     public ResponseEntity<BaseResponse<List<UserResponse>>> getAll(
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "cached") String count) {
 
-        log.info("Get all users with search: {}, page: {} and size: {}", search, page, size);
-        Pageable pageable = PageRequest.of(page, size);
-        BaseResponse<Page<UserResponse>> response = userService.getAllUsers(search, pageable);
+        log.info("Get all users with search: {}, page: {}, size: {}, sort: {} {}, count: {}",
+                search, page, size, sort, direction, count);
+        Optional<CountMode> countMode = CountMode.fromParam(count);
+        if (countMode.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(BaseResponse.error(HttpStatus.BAD_REQUEST.value(), ErrorCode.INVALID_COUNT_MODE));
+        }
+        Optional<UserSortField> sortField = UserSortField.fromParam(sort);
+        Optional<Sort.Direction> sortDirection = Sort.Direction.fromOptionalString(direction);
+        if (sortField.isEmpty() || sortDirection.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(BaseResponse.error(HttpStatus.BAD_REQUEST.value(), ErrorCode.INVALID_SORT_FIELD));
+        }
+
+        // id is always the last sort key so pages are stable when the first key has ties
+        Sort order = Sort.by(sortDirection.get(), sortField.get().getProperty());
+        if (sortField.get() != UserSortField.ID) {
+            order = order.and(Sort.by(sortDirection.get(), UserSortField.ID.getProperty()));
+        }
+        Pageable pageable = PageRequest.of(page, pageSize(size), order);
+        BaseResponse<SlicePage<UserResponse>> response = userService.listUsers(search, pageable, countMode.get());
 
         if (!response.getStatus().equals(AppConstant.SUCCESS)) {
             return ResponseEntity.status(response.getCode())
-                    .body(BaseResponse.error(response.getCode(), response.getMessage()));
+                    .body(BaseResponse.error(response.getCode(), response.getErrorCode(), response.getMessage()));
         }
 
         return ResponseEntity.ok()
                 .headers(setPaginationHeaders(response.getData()))
-                .body(BaseResponse.ok(response.getData().getContent()));
+                .body(BaseResponse.ok(response.getData().getItems()));
+    }
+
+    // /users takes a cursor for compatibility; without one it is the offset listing
+    @GetMapping(params = "cursor")
+    public ResponseEntity<BaseResponse<CursorPage<UserResponse>>> scrollFrom(
+            @RequestParam(required = false) String search,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction) {
+        return scroll(search, cursor, size, sort, direction);
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<BaseResponse<CursorPage<UserResponse>>> scroll(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction) {
+
+        log.info("Scroll users with search: {}, size: {}, sort: {} {}", search, size, sort, direction);
+        Optional<UserSortField> sortField = UserSortField.fromParam(sort);
+        Optional<Sort.Direction> sortDirection = Sort.Direction.fromOptionalString(direction);
+        if (sortField.isEmpty() || sortDirection.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(BaseResponse.error(HttpStatus.BAD_REQUEST.value(), ErrorCode.INVALID_SORT_FIELD));
+        }
+
+        BaseResponse<CursorPage<UserResponse>> response =
+                userService.scrollUsers(search, sortField.get(), sortDirection.get(), cursor, pageSize(size));
+        return ResponseEntity.status(response.getCode()).body(response);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<BaseResponse<UserResponse>> update(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UserRequest request) {
         log.info("Update user with id: {} and request: {}", id, request);
-        BaseResponse<UserResponse> response = userService.updateUser(id, request);
-        return ResponseEntity.status(response.getCode()).body(response);
+        Optional<Long> expectedVersion = expectedVersion(id, ifMatch);
+        if (ifMatch != null && expectedVersion.isEmpty() && !ifMatch.trim().equals("*")) {
+            return preconditionFailed();
+        }
+        BaseResponse<UserResponse> response = userService.updateUser(id, request, expectedVersion.orElse(null));
+        return withETag(response);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<BaseResponse<Void>> delete(@PathVariable Long id) {
+    public ResponseEntity<BaseResponse<Void>> delete(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Delete user with id: {}", id);
-        BaseResponse<Void> response = userService.deleteUser(id);
+        Optional<Long> expectedVersion = expectedVersion(id, ifMatch);
+        if (ifMatch != null && expectedVersion.isEmpty() && !ifMatch.trim().equals("*")) {
+            return preconditionFailed();
+        }
+        BaseResponse<Void> response = userService.deleteUser(id, expectedVersion.orElse(null));
         return ResponseEntity.status(response.getCode()).body(response);
     }
 
-    private HttpHeaders setPaginationHeaders(Page<?> page) {
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    private ResponseEntity<BaseResponse<UserResponse>> withETag(BaseResponse<UserResponse> response) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getCode());
+        if (response.getStatus().equals(AppConstant.SUCCESS)) {
+            builder.eTag(eTag(response.getData().getId(), response.getData().getVersion()));
+        }
+        return builder.body(response);
+    }
+
+    private String eTag(Long id, Long version) {
+        return id + "-" + version;
+    }
+
+    private boolean matchesETag(String ifNoneMatch, String eTag) {
+        return ifNoneMatch.trim().equals("*") || ifNoneMatch.contains("\"" + eTag + "\"");
+    }
+
+    /**
+     * The version an If-Match header expects for this user, empty when there is no
+     * header or none of its tags belongs to the user.
+     */
+    private Optional<Long> expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = USER_ETAG.matcher(ifMatch);
+        while (matcher.find()) {
+            if (matcher.group(1).equals(String.valueOf(id))) {
+                return Optional.of(Long.parseLong(matcher.group(2)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private <T> ResponseEntity<BaseResponse<T>> preconditionFailed() {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(BaseResponse.error(HttpStatus.PRECONDITION_FAILED.value(),
+                        ErrorCode.PRECONDITION_FAILED));
+    }
+
+    private HttpHeaders setPaginationHeaders(SlicePage<?> page) {
         HttpHeaders headers = new HttpHeaders();
-        headers.add("X-Total-Count", String.valueOf(page.getTotalElements()));
-        headers.add("X-Total-Pages", String.valueOf(page.getTotalPages()));
+        headers.add("X-Has-Next", String.valueOf(page.isHasNext()));
+        if (page.getTotalElements() != null) {
+            long totalPages = (page.getTotalElements() + page.getSize() - 1) / page.getSize();
+            headers.add("X-Total-Count", String.valueOf(page.getTotalElements()));
+            headers.add("X-Total-Pages", String.valueOf(totalPages));
+            if (page.isTotalApproximate()) {
+                headers.add("X-Total-Count-Approximate", "true");
+            }
+        }
         return headers;
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.example.demo.controller;
+
+import com.example.demo.constant.AppConstant;
+import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.ErrorCode;
+import com.example.demo.domain.dto.response.UserImportResponse;
+import com.example.demo.service.UserImportService;
+import com.example.demo.service.importer.ImportErrorReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/v1/users/imports")
+@Slf4j
+public class UserImportController {
+
+    private final UserImportService userImportService;
+
+    public UserImportController(UserImportService userImportService) {
+        this.userImportService = userImportService;
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BaseResponse<UserImportResponse>> submit(@RequestParam("file") MultipartFile file)
+            throws IOException {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(BaseResponse.error(HttpStatus.BAD_REQUEST.value(), ErrorCode.IMPORT_FILE_REQUIRED));
+        }
+
+        log.info("Import users from {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+        BaseResponse<UserImportResponse> response;
+        try (InputStream content = file.getInputStream()) {
+            response = userImportService.submitImport(file.getOriginalFilename(), content);
+        }
+        if (!response.getStatus().equals(AppConstant.SUCCESS)) {
+            return ResponseEntity.status(response.getCode()).body(response);
+        }
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{id}")
+                        .buildAndExpand(response.getData().getId())
+                        .toUri())
+                .body(response);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<BaseResponse<UserImportResponse>> get(@PathVariable String id) {
+        BaseResponse<UserImportResponse> response = userImportService.getImport(id);
+        return ResponseEntity.status(response.getCode()).body(response);
+    }
+
+    @GetMapping("/{id}/errors")
+    public ResponseEntity<?> downloadErrors(@PathVariable String id) {
+        log.info("Download import errors: {}", id);
+        BaseResponse<ImportErrorReport> response = userImportService.getErrorReport(id);
+        if (!response.getStatus().equals(AppConstant.SUCCESS)) {
+            return ResponseEntity.status(response.getCode()).body(response);
+        }
+
+        ImportErrorReport report = response.getData();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(report.fileName()).build().toString())
+                .contentType(MediaType.parseMediaType(ImportErrorReport.CONTENT_TYPE))
+                .contentLength(report.size())
+                .body(new FileSystemResource(report.path()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<BaseResponse<UserImportResponse>> cancel(@PathVariable String id) {
+        log.info("Cancel import: {}", id);
+        BaseResponse<UserImportResponse> response = userImportService.cancelImport(id);
+        return ResponseEntity.status(response.getCode()).body(response);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.datasource;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Reads that must see every committed write, whatever the client, such as the loads of
+ * caches that writes invalidate on commit. Filled from a lagging replica, such a cache
+ * would keep the old row after its invalidation already happened.
+ * <p>
+ * The read runs in a read-only transaction of its own, so it gets a fresh connection
+ * even inside a transaction already bound to the replica, and that transaction goes to
+ * the primary. Without the read/write split this is just a read-only transaction.
+ */
+@Component
+public class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private final TransactionTemplate readOnly;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager) {
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public <T> T read(Supplier<T> read) {
+        Boolean outer = ACTIVE.get();
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return readOnly.execute(status -> read.get());
+        } finally {
+            if (outer == null) {
+                ACTIVE.remove();
+            }
+        }
+    }
+
+    static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+}
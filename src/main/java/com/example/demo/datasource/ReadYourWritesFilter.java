@@ -0,0 +1,100 @@
+package com.example.demo.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Read-your-writes over a lagging replica. Once a client's write committed, its reads go
+ * to the primary for {@code app.datasource.read-your-writes-window}. The deadline is kept
+ * in a cookie, so it follows the browser session of the views and every REST client that
+ * keeps cookies without any state on the server.
+ * <p>
+ * Work handed to other threads, such as report jobs, is not tied to a client and reads
+ * from the replica.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "primary_until";
+
+    private final Duration window;
+    private final ThreadLocal<ClientRequest> currentRequest = new ThreadLocal<>();
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        currentRequest.set(new ClientRequest(response, request.getContextPath(), wroteRecently(request)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            currentRequest.remove();
+        }
+    }
+
+    /**
+     * Whether reads of the current request must see the client's own writes.
+     */
+    boolean isSticky() {
+        ClientRequest request = currentRequest.get();
+        return request != null && request.sticky;
+    }
+
+    /**
+     * Called after a read-write transaction of the current request committed.
+     */
+    void recordWrite() {
+        ClientRequest request = currentRequest.get();
+        if (request == null) {
+            return;
+        }
+        request.sticky = true;
+        // A streamed response may already be on its way, its client keeps the old deadline
+        if (!request.response.isCommitted()) {
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(System.currentTimeMillis() + window.toMillis()));
+            cookie.setPath(request.contextPath.isEmpty() ? "/" : request.contextPath);
+            cookie.setMaxAge((int) Math.max(1, (window.toMillis() + 999) / 1000));
+            cookie.setHttpOnly(true);
+            request.response.addCookie(cookie);
+        }
+    }
+
+    private static boolean wroteRecently(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return System.currentTimeMillis() < Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class ClientRequest {
+
+        private final HttpServletResponse response;
+        private final String contextPath;
+        private boolean sticky;
+
+        private ClientRequest(HttpServletResponse response, String contextPath, boolean sticky) {
+            this.response = response;
+            this.contextPath = contextPath;
+            this.sticky = sticky;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Read/write split, enabled with {@code app.datasource.replica.enabled=true}.
+ * <p>
+ * The application datasource routes read-only transactions to
+ * {@code app.datasource.replica.url} and everything else to {@code spring.datasource.url}.
+ * Both pools take the {@code spring.datasource.hikari.*} settings. With
+ * {@code app.datasource.replica.stand-in.enabled} the replica is fed by
+ * {@link ReplicationStandIn}, for a local H2 replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public DataSource primaryDataSource(DataSourceProperties properties, Environment environment,
+                                        ObjectProvider<ReplicationStandIn> replicationStandIn) {
+        DataSource primary = pool(properties.initializeDataSourceBuilder(), environment, "primary");
+        ReplicationStandIn standIn = replicationStandIn.getIfAvailable();
+        if (standIn == null) {
+            return primary;
+        }
+        return ProxyDataSourceBuilder.create("primary", primary)
+                .listener(standIn)
+                .methodListener(standIn)
+                .proxyResultSet()
+                .build();
+    }
+
+    @Bean
+    public DataSource replicaDataSource(
+            Environment environment,
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:sa}") String username,
+            @Value("${app.datasource.replica.password:}") String password) {
+        return pool(DataSourceBuilder.create().url(url).username(username).password(password), environment,
+                "replica");
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadYourWritesFilter readYourWritesFilter) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, readYourWritesFilter));
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${app.datasource.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.stand-in.enabled", havingValue = "true")
+    public ReplicationStandIn replicationStandIn(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${app.datasource.replica.stand-in.lag:1s}") Duration lag) {
+        return new ReplicationStandIn(replica, lag);
+    }
+
+    /**
+     * Seeds the replica once every singleton, the schema update and the sequence
+     * alignment included, is done and before the web server takes requests.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.stand-in.enabled", havingValue = "true")
+    public SmartInitializingSingleton replicationStandInStarter(
+            ReplicationStandIn replicationStandIn,
+            @Qualifier("primaryDataSource") DataSource primary) {
+        return () -> {
+            try {
+                replicationStandIn.start(primary);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not copy the primary to the replica", e);
+            }
+        };
+    }
+
+    private static HikariDataSource pool(DataSourceBuilder<?> builder, Environment environment, String name) {
+        HikariDataSource pool = builder.type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        return pool;
+    }
+}
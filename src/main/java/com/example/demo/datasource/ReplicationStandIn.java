@@ -0,0 +1,298 @@
+package com.example.demo.datasource;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stands in for database replication when the replica is a second local H2, which has
+ * none of its own.
+ * <p>
+ * On startup the replica gets a copy of the primary through H2's {@code SCRIPT}. From
+ * then on the write statements of every committed primary transaction are replayed on
+ * the replica, with the same parameters and in commit order, {@code lag} later, so the
+ * replica is behind the way a real one is. Rolled back work is never replayed. A
+ * statement the replica rejects is logged and skipped.
+ * <p>
+ * A data change delta query, such as {@code SELECT * FROM FINAL TABLE (MERGE ...)}, is not
+ * replayed as written: a {@code NEXT VALUE FOR} in it would hand out other ids on the
+ * replica. Instead every row it returns is read back by its {@code id} on the primary
+ * connection and replayed as a {@code MERGE} of the stored values, or a {@code DELETE} when
+ * the row is gone. This needs the primary's result sets proxied.
+ */
+@Slf4j
+public class ReplicationStandIn implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final Set<String> WRITES =
+            Set.of("INSERT", "UPDATE", "DELETE", "MERGE", "CREATE", "ALTER", "DROP", "TRUNCATE");
+    private static final Pattern DELTA_TABLE = Pattern.compile(
+            "\\b(?:FINAL|NEW|OLD)\\s+TABLE\\s*\\(\\s*(?:(?:MERGE|INSERT)\\s+INTO|UPDATE|DELETE\\s+FROM)\\s+(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Method SET_OBJECT;
+
+    static {
+        try {
+            SET_OBJECT = PreparedStatement.class.getMethod("setObject", int.class, Object.class);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final DataSource replica;
+    private final Duration lag;
+    private final Map<String, List<Change>> pending = new ConcurrentHashMap<>();
+    // Table changed by the delta query whose result set is open, per connection
+    private final Map<String, String> openDeltas = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService replicator;
+    private volatile boolean running;
+
+    public ReplicationStandIn(DataSource replica, Duration lag) {
+        this.replica = replica;
+        this.lag = lag;
+        this.replicator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replication-stand-in");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Copies the primary to the replica and starts replaying. Writes made before, like
+     * the schema setup at startup, are part of the copy.
+     */
+    public void start(DataSource primary) throws SQLException {
+        long start = System.nanoTime();
+        int statements = 0;
+        try (Connection source = primary.getConnection();
+             Statement script = source.createStatement();
+             Connection target = replica.getConnection();
+             Statement apply = target.createStatement()) {
+            target.setAutoCommit(false);
+            apply.execute("DROP ALL OBJECTS");
+            try (ResultSet rows = script.executeQuery("SCRIPT")) {
+                while (rows.next()) {
+                    apply.execute(rows.getString(1));
+                    statements++;
+                }
+            }
+            target.commit();
+        }
+        running = true;
+        log.info("Copied the primary to the replica in {} statements and {} ms, replaying writes {} ms behind",
+                statements, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lag.toMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        replicator.shutdownNow();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!running || !execInfo.isSuccess()) {
+            return;
+        }
+        List<Change> changes = new ArrayList<>();
+        for (QueryInfo query : queryInfoList) {
+            Matcher delta = DELTA_TABLE.matcher(query.getQuery());
+            if (delta.find()) {
+                openDeltas.put(execInfo.getConnectionId(), delta.group(1));
+            } else if (isWrite(query.getQuery())) {
+                changes.add(new Change(query.getQuery(), copyOf(query.getParametersList())));
+            }
+        }
+        record(execInfo.getConnectionId(), isAutoCommit(execInfo.getStatement()), changes);
+    }
+
+    private void record(String connectionId, boolean autoCommit, List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (autoCommit) {
+            publish(changes);
+        } else {
+            pending.computeIfAbsent(connectionId, id -> new ArrayList<>()).addAll(changes);
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet rows) {
+            afterResultSetMethod(executionContext, rows);
+            return;
+        }
+        if (!(executionContext.getTarget() instanceof Connection)) {
+            return;
+        }
+        String connectionId = executionContext.getConnectionInfo().getConnectionId();
+        boolean noArguments = executionContext.getMethodArgs() == null || executionContext.getMethodArgs().length == 0;
+        switch (executionContext.getMethod().getName()) {
+            case "commit" -> {
+                List<Change> committed = pending.remove(connectionId);
+                if (committed != null && executionContext.getThrown() == null) {
+                    publish(committed);
+                }
+            }
+            // Rolling back to a savepoint keeps the transaction, the changes stay pending
+            case "rollback" -> {
+                if (noArguments) {
+                    pending.remove(connectionId);
+                }
+            }
+            case "close" -> {
+                pending.remove(connectionId);
+                openDeltas.remove(connectionId);
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void afterResultSetMethod(MethodExecutionContext executionContext, ResultSet rows) {
+        String connectionId = executionContext.getConnectionInfo().getConnectionId();
+        switch (executionContext.getMethod().getName()) {
+            case "next" -> {
+                String table = openDeltas.get(connectionId);
+                if (table == null || !Boolean.TRUE.equals(executionContext.getResult())) {
+                    return;
+                }
+                try {
+                    record(connectionId, isAutoCommit(rows.getStatement()), List.of(readBack(rows, table)));
+                } catch (SQLException e) {
+                    log.warn("Could not read back a row of {} for the replica: {}", table, e.getMessage());
+                }
+            }
+            case "close" -> openDeltas.remove(connectionId);
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * The current state of the row the delta query returned, as seen by its own
+     * transaction, as a change that carries the id instead of generating one.
+     */
+    private static Change readBack(ResultSet deltaRow, String table) throws SQLException {
+        Object id = deltaRow.getObject("id");
+        Connection connection = deltaRow.getStatement().getConnection();
+        try (PreparedStatement select = connection.prepareStatement("SELECT * FROM " + table + " WHERE id = ?")) {
+            select.setObject(1, id);
+            try (ResultSet row = select.executeQuery()) {
+                if (!row.next()) {
+                    return new Change("DELETE FROM " + table + " WHERE id = ?", List.of(List.of(parameter(1, id))));
+                }
+                ResultSetMetaData metaData = row.getMetaData();
+                List<String> columns = new ArrayList<>();
+                List<ParameterSetOperation> values = new ArrayList<>();
+                for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                    columns.add(metaData.getColumnName(column));
+                    values.add(parameter(column, row.getObject(column)));
+                }
+                // Without KEY, H2 merges on the primary key
+                String merge = "MERGE INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                        + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+                return new Change(merge, List.of(values));
+            }
+        }
+    }
+
+    private static ParameterSetOperation parameter(int index, Object value) {
+        return new ParameterSetOperation(SET_OBJECT, new Object[]{index, value});
+    }
+
+    private void publish(List<Change> changes) {
+        // One thread and a fixed delay keep the commit order
+        replicator.schedule(() -> apply(changes), lag.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void apply(List<Change> changes) {
+        try (Connection connection = replica.getConnection()) {
+            connection.setAutoCommit(false);
+            for (Change change : changes) {
+                try {
+                    apply(connection, change);
+                } catch (SQLException | ReflectiveOperationException e) {
+                    log.warn("Replica rejected {}: {}", change.sql(), e.getMessage());
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            log.warn("Could not replicate {} statements: {}", changes.size(), e.getMessage());
+        }
+    }
+
+    private static void apply(Connection connection, Change change) throws SQLException, ReflectiveOperationException {
+        if (change.parameters().isEmpty()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(change.sql());
+            }
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(change.sql())) {
+            for (List<ParameterSetOperation> parameters : change.parameters()) {
+                for (ParameterSetOperation parameter : parameters) {
+                    parameter.getMethod().invoke(statement, parameter.getArgs());
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static boolean isWrite(String sql) {
+        String keyword = sql.trim().split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+        return WRITES.contains(keyword);
+    }
+
+    private static boolean isAutoCommit(Statement statement) {
+        try {
+            return statement.getConnection().getAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static List<List<ParameterSetOperation>> copyOf(List<List<ParameterSetOperation>> parametersList) {
+        // datasource-proxy clears the lists for the next execution of the statement
+        return parametersList.stream().<List<ParameterSetOperation>>map(List::copyOf).toList();
+    }
+
+    private record Change(String sql, List<List<ParameterSetOperation>> parameters) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cheap fingerprint of the users table, changes whenever rows are added, removed or updated.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDataVersion {
+    private Long rowCount;
+    private LocalDateTime lastCreatedAt;
+    private LocalDateTime lastUpdatedAt;
+}
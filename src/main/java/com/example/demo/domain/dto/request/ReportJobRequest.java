@@ -0,0 +1,21 @@
+package com.example.demo.domain.dto.request;
+
+import com.example.demo.constant.ReportFormat;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobRequest {
+    @NotNull(message = "Format is required")
+    private ReportFormat format;
+
+    @Size(max = 100, message = "Search must not exceed 100 characters")
+    private String search;
+}
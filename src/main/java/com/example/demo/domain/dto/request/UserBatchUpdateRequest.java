@@ -0,0 +1,15 @@
+package com.example.demo.domain.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchUpdateRequest {
+    private Long id;
+    private UserRequest user;
+}
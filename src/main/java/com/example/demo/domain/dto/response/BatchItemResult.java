@@ -0,0 +1,19 @@
+package com.example.demo.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult<T> {
+    /** Position of the item in the request array. */
+    private int index;
+    private Long id;
+    private String status;
+    private String message;
+    private T data;
+}
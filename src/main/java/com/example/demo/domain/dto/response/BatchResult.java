@@ -0,0 +1,19 @@
+package com.example.demo.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResult<T> {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResult<T>> items;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.domain.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+    @JsonProperty("has_next")
+    private boolean hasNext;
+}
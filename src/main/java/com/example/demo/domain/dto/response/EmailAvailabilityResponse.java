@@ -0,0 +1,15 @@
+package com.example.demo.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailAvailabilityResponse {
+    private String email;
+    private boolean available;
+}
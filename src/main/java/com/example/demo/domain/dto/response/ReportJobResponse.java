@@ -0,0 +1,29 @@
+package com.example.demo.domain.dto.response;
+
+import com.example.demo.constant.ReportFormat;
+import com.example.demo.constant.ReportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+    private String id;
+    private ReportFormat format;
+    private String search;
+    private ReportJobStatus status;
+    private long processedRows;
+    private long totalRows;
+    private int progress;
+    private Long fileSize;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,22 @@
+package com.example.demo.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlicePage<T> {
+    private List<T> items;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    /** Null when totals were not requested. */
+    private Long totalElements;
+    private boolean totalApproximate;
+}
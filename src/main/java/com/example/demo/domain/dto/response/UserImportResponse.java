@@ -0,0 +1,27 @@
+package com.example.demo.domain.dto.response;
+
+import com.example.demo.constant.ImportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResponse {
+    private String id;
+    private String fileName;
+    private ImportJobStatus status;
+    private int progress;
+    private long parsedRows;
+    private long importedRows;
+    private long rejectedRows;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
@@ -21,4 +21,5 @@ public class UserResponse {
     private UserStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 }
@@ -1,19 +1,113 @@
 package com.example.demo.domain.entity.user;
 
+import com.example.demo.domain.dto.UserDataVersion;
+import com.example.demo.domain.dto.UserReportDTO;
+import com.example.demo.domain.dto.response.UserResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    boolean existsByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
+    /**
+     * Constructor expression for read paths: selects only the columns of the response,
+     * Hibernate neither hydrates an entity nor keeps a dirty check snapshot of it.
+     */
+    String TO_RESPONSE = "new com.example.demo.domain.dto.response.UserResponse(" +
+            "u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.status, u.createdAt, u.updatedAt, u.version)";
 
-    @Query("SELECT u FROM User u WHERE " +
-            "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchText, '%')) OR " +
+    /**
+     * Case-insensitive match of {@code :searchText} in first name, last name or email.
+     */
+    String SEARCH = "(LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchText, '%')) OR " +
             "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchText, '%')) OR " +
-            "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchText, '%'))")
-    Page<User> search(@Param("searchText") String searchText, Pageable pageable);
-}
\ No newline at end of file
+            "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchText, '%')))";
+
+    boolean existsByEmail(String email);
+
+    boolean existsByEmailAndIdNot(String email, Long id);
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id AND u.version = :version")
+    int deleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Page of the user list, read straight into responses without managed entities.
+     */
+    @Query(value = "SELECT " + TO_RESPONSE + " FROM User u",
+            countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserResponse> findResponses(Pageable pageable);
+
+    /**
+     * Listing page without a count query, Spring Data reads one extra row for {@code hasNext}.
+     */
+    @Query("SELECT " + TO_RESPONSE + " FROM User u")
+    Slice<UserResponse> findResponseSlice(Pageable pageable);
+
+    @Query(value = "SELECT " + TO_RESPONSE + " FROM User u WHERE " + SEARCH,
+            countQuery = "SELECT COUNT(u) FROM User u WHERE " + SEARCH)
+    Page<UserResponse> search(@Param("searchText") String searchText, Pageable pageable);
+
+    @Query("SELECT " + TO_RESPONSE + " FROM User u WHERE " + SEARCH)
+    Slice<UserResponse> searchSlice(@Param("searchText") String searchText, Pageable pageable);
+
+    /**
+     * Used by the user cache outside of any service transaction. Unlike {@code findById}, a
+     * declared query gets no transaction from Spring Data, so it is marked read-only here.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT " + TO_RESPONSE + " FROM User u WHERE u.id = :id")
+    Optional<UserResponse> findResponseById(@Param("id") Long id);
+
+    @Query("SELECT " + TO_RESPONSE + " FROM User u WHERE u.id IN :ids")
+    List<UserResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Row count kept by H2 in its table statistics, cheap but only approximate.
+     */
+    @Query(value = "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES " +
+            "WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_NAME = 'USERS'", nativeQuery = true)
+    Long estimateRowCount();
+
+    /**
+     * Cursor over the rows of a report, all users when {@code searchText} is null.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.demo.domain.dto.UserReportDTO(" +
+            "u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.status, u.createdAt, u.updatedAt) " +
+            "FROM User u WHERE :searchText IS NULL OR " + SEARCH + " ORDER BY u.id")
+    Stream<UserReportDTO> streamReportRows(@Param("searchText") String searchText);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE :searchText IS NULL OR " + SEARCH)
+    long countForReport(@Param("searchText") String searchText);
+
+    @Query("SELECT new com.example.demo.domain.dto.UserDataVersion(COUNT(u), MAX(u.createdAt), MAX(u.updatedAt)) " +
+            "FROM User u")
+    UserDataVersion findDataVersion();
+}
@@ -0,0 +1,24 @@
+package com.example.demo.domain.entity.user;
+
+import com.example.demo.constant.UserSortField;
+import com.example.demo.domain.dto.response.UserResponse;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Keyset page: up to {@code limit} users ordered by {@code sortField} then id, strictly
+     * after ({@code lastKey}, {@code lastId}) in that order. Starts at the first row when
+     * {@code lastId} is null.
+     */
+    List<UserResponse> findPageAfter(String searchText, UserSortField sortField, boolean descending,
+                                     Object lastKey, Long lastId, int limit);
+
+    /**
+     * Inserts the user, or updates the user with the same email, in one {@code MERGE}
+     * statement and returns the stored row. A concurrent insert of the same new email can
+     * still fail on the unique constraint, the caller may retry it as an update.
+     */
+    User upsertByEmail(User user);
+}
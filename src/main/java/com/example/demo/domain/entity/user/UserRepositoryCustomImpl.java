@@ -0,0 +1,89 @@
+package com.example.demo.domain.entity.user;
+
+import com.example.demo.constant.UserSortField;
+import com.example.demo.domain.dto.response.UserResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    // FINAL TABLE returns the merged row, so no second query is needed to read it back;
+    // the sequence is only consumed when a row is inserted
+    private static final String UPSERT_BY_EMAIL = """
+            SELECT * FROM FINAL TABLE (
+                MERGE INTO users u
+                USING (VALUES (CAST(:email AS VARCHAR(100)))) s(email)
+                ON u.email = s.email
+                WHEN MATCHED THEN UPDATE SET
+                    first_name = :firstName, last_name = :lastName, phone_number = :phoneNumber,
+                    status = :status, updated_at = :now, version = u.version + 1
+                WHEN NOT MATCHED THEN INSERT
+                    (id, first_name, last_name, email, phone_number, status, created_at, version)
+                    VALUES (NEXT VALUE FOR users_seq, :firstName, :lastName, s.email, :phoneNumber,
+                            :status, :now, 0)
+            )""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserResponse> findPageAfter(String searchText, UserSortField sortField, boolean descending,
+                                            Object lastKey, Long lastId, int limit) {
+        // Properties come from the UserSortField whitelist, never from the request
+        String key = "u." + sortField.getProperty();
+        String comparison = descending ? "<" : ">";
+        String direction = descending ? "DESC" : "ASC";
+
+        StringBuilder jpql = new StringBuilder("SELECT ").append(UserRepository.TO_RESPONSE)
+                .append(" FROM User u WHERE 1 = 1");
+        if (searchText != null) {
+            jpql.append(" AND (LOWER(u.firstName) LIKE :pattern OR LOWER(u.lastName) LIKE :pattern")
+                    .append(" OR LOWER(u.email) LIKE :pattern)");
+        }
+        if (lastId != null) {
+            if (sortField == UserSortField.ID) {
+                jpql.append(" AND u.id ").append(comparison).append(" :lastId");
+            } else {
+                // The single column bound lets H2 seek the (column, id) index, the second
+                // condition, (key, id) after (lastKey, lastId), then skips the ties already returned
+                jpql.append(" AND ").append(key).append(' ').append(comparison).append("= :lastKey")
+                        .append(" AND (").append(key).append(' ').append(comparison).append(" :lastKey")
+                        .append(" OR u.id ").append(comparison).append(" :lastId)");
+            }
+        }
+        jpql.append(" ORDER BY ");
+        if (sortField != UserSortField.ID) {
+            jpql.append(key).append(' ').append(direction).append(", ");
+        }
+        jpql.append("u.id ").append(direction);
+
+        TypedQuery<UserResponse> query = entityManager.createQuery(jpql.toString(), UserResponse.class);
+        if (searchText != null) {
+            query.setParameter("pattern", "%" + searchText.toLowerCase(Locale.ROOT) + "%");
+        }
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+            if (sortField != UserSortField.ID) {
+                query.setParameter("lastKey", lastKey);
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public User upsertByEmail(User user) {
+        return (User) entityManager.createNativeQuery(UPSERT_BY_EMAIL, User.class)
+                .setParameter("email", user.getEmail())
+                .setParameter("firstName", user.getFirstName())
+                .setParameter("lastName", user.getLastName())
+                .setParameter("phoneNumber", user.getPhoneNumber())
+                .setParameter("status", user.getStatus().name())
+                .setParameter("now", LocalDateTime.now())
+                .getSingleResult();
+    }
+}
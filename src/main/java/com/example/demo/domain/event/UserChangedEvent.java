@@ -0,0 +1,14 @@
+package com.example.demo.domain.event;
+
+import com.example.demo.domain.dto.response.UserResponse;
+
+/**
+ * Published by the user service for every write. Listeners that keep derived state
+ * (caches, indexes) should react after commit. {@code user} is null for deletes.
+ */
+public record UserChangedEvent(Type type, Long userId, UserResponse user) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
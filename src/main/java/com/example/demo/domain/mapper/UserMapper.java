@@ -0,0 +1,31 @@
+package com.example.demo.domain.mapper;
+
+import com.example.demo.domain.dto.UserReportDTO;
+import com.example.demo.domain.dto.request.UserRequest;
+import com.example.demo.domain.dto.response.UserResponse;
+import com.example.demo.domain.entity.user.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface UserMapper {
+
+    UserResponse toResponse(User user);
+
+    UserReportDTO toReportDTO(User user);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    User toEntity(UserRequest request);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    void updateEntity(UserRequest request, @MappingTarget User user);
+}
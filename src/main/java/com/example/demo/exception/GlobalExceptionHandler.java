@@ -1,12 +1,14 @@
 package com.example.demo.exception;
 
 import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.ErrorCode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,7 +26,7 @@ public class GlobalExceptionHandler {
                 .status(HttpStatus.BAD_REQUEST)
                 .body(BaseResponse.error(
                         HttpStatus.BAD_REQUEST.value(),
-                        e.getMessage()
+                        e.getErrorCode()
                 ));
     }
 
@@ -45,10 +47,25 @@ public class GlobalExceptionHandler {
                 .status(HttpStatus.BAD_REQUEST)
                 .body(BaseResponse.error(
                         HttpStatus.BAD_REQUEST.value(),
+                        ErrorCode.VALIDATION_ERROR,
                         errorMessage
                 ));
     }
 
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<BaseResponse<Void>> handleTypeMismatchException(
+            MethodArgumentTypeMismatchException e
+    ) {
+        log.error("Invalid value for parameter {}: {}", e.getName(), e.getValue());
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(BaseResponse.error(
+                        HttpStatus.BAD_REQUEST.value(),
+                        ErrorCode.VALIDATION_ERROR,
+                        "Invalid value for " + e.getName()
+                ));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<BaseResponse<Void>> handleGeneralException(Exception e) {
         log.error("Unexpected error occurred", e);
@@ -56,6 +73,7 @@ public class GlobalExceptionHandler {
                 .status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(BaseResponse.error(
                         HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                        ErrorCode.SYSTEM_ERROR,
                         "Internal server error"
                 ));
     }
@@ -0,0 +1,71 @@
+package com.example.demo.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in every N INFO (and lower) events of selected loggers, configured as
+ * {@code samples="com.example.demo.controller=10,com.example.demo.service=5"}; a logger
+ * matches its own name and every logger below it, the longest match wins. WARN and
+ * ERROR always pass.
+ * <p>
+ * As a turbo filter it runs before the event is created, so a dropped line costs
+ * neither message formatting nor a slot in the async queue.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private volatile List<Sample> samples = List.of();
+
+    public void setSamples(String samples) {
+        List<Sample> parsed = new ArrayList<>();
+        for (String entry : samples.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2 || parts[0].isBlank()) {
+                if (!entry.isBlank()) {
+                    addWarn("Ignoring sample '" + entry + "', expected <logger>=<one in N>");
+                }
+                continue;
+            }
+            int rate = Integer.parseInt(parts[1].trim());
+            if (rate > 1) {
+                parsed.add(new Sample(parts[0].trim(), rate, new AtomicLong()));
+            }
+        }
+        // Most specific logger first
+        parsed.sort(Comparator.comparingInt((Sample sample) -> sample.logger().length()).reversed());
+        this.samples = List.copyOf(parsed);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        // Only count events that will be logged, not isInfoEnabled() checks or disabled levels
+        if (format == null || level == null || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        String name = logger.getName();
+        for (Sample sample : samples) {
+            if (sample.matches(name)) {
+                return sample.seen().getAndIncrement() % sample.rate() == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private record Sample(String logger, int rate, AtomicLong seen) {
+
+        boolean matches(String name) {
+            return name.startsWith(logger)
+                    && (name.length() == logger.length() || name.charAt(logger.length()) == '.');
+        }
+    }
+}
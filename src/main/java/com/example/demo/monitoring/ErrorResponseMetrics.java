@@ -0,0 +1,50 @@
+package com.example.demo.monitoring;
+
+import com.example.demo.constant.AppConstant;
+import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Objects;
+
+/**
+ * Counts the error responses the REST API sends as {@code app.errors}, tagged with the
+ * status code and the {@link ErrorCode} the service reported. Services return errors
+ * instead of throwing them, and not every error they build reaches a client, such as a
+ * missing version that the controller answers by loading the user instead.
+ */
+@ControllerAdvice
+public class ErrorResponseMetrics implements ResponseBodyAdvice<Object> {
+
+    private final MeterRegistry meterRegistry;
+
+    public ErrorResponseMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body instanceof BaseResponse<?> baseResponse && AppConstant.ERROR.equals(baseResponse.getStatus())) {
+            ErrorCode errorCode = Objects.requireNonNullElse(baseResponse.getErrorCode(), ErrorCode.SYSTEM_ERROR);
+            meterRegistry.counter("app.errors",
+                    "code", String.valueOf(baseResponse.getCode()),
+                    "error", errorCode.name()
+            ).increment();
+        }
+        return body;
+    }
+}
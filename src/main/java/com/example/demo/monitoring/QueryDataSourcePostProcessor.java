@@ -0,0 +1,39 @@
+package com.example.demo.monitoring;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application datasource so {@link QueryMonitor} sees every statement, from
+ * Hibernate and from the {@code JdbcTemplate}s alike. Delegating datasources, like the
+ * read/write routing in front of the primary and replica pools, are left alone so each
+ * statement is seen once, on the pool that ran it. Disabled with
+ * {@code app.queries.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.queries.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<QueryMonitor> queryMonitor;
+
+    public QueryDataSourcePostProcessor(ObjectProvider<QueryMonitor> queryMonitor) {
+        this.queryMonitor = queryMonitor;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(queryMonitor.getObject())
+                    .build();
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demo.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Watches every JDBC statement of the application datasource.
+ * <p>
+ * Statements slower than {@code app.queries.slow-threshold} are kept, with their H2
+ * {@code EXPLAIN} plan, in a log of the last {@code app.queries.slow-log-size}. The plan
+ * is taken on the statement's own connection with the same parameters, right after it
+ * ran. Parameter values are not kept, they may hold personal data.
+ * <p>
+ * Statements are also counted per HTTP request ({@link StatementCountFilter}). A request
+ * that runs more than {@code app.queries.request-statement-limit} is logged and kept with
+ * its most repeated statement, which is usually the lazy load of an N+1.
+ */
+@Component
+@Slf4j
+public class QueryMonitor implements QueryExecutionListener {
+
+    private static final int MAX_SQL_LENGTH = 2000;
+
+    private final long slowThresholdMs;
+    private final int requestStatementLimit;
+    private final RingBuffer<SlowQuery> slowQueries;
+    private final RingBuffer<FlaggedRequest> flaggedRequests;
+    private final ThreadLocal<Map<String, Integer>> requestStatements = new ThreadLocal<>();
+
+    public QueryMonitor(
+            @Value("${app.queries.slow-threshold:200ms}") Duration slowThreshold,
+            @Value("${app.queries.slow-log-size:50}") int slowLogSize,
+            @Value("${app.queries.request-statement-limit:20}") int requestStatementLimit,
+            @Value("${app.queries.flagged-request-log-size:50}") int flaggedRequestLogSize) {
+        this.slowThresholdMs = slowThreshold.toMillis();
+        this.requestStatementLimit = requestStatementLimit;
+        this.slowQueries = new RingBuffer<>(slowLogSize);
+        this.flaggedRequests = new RingBuffer<>(flaggedRequestLogSize);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Map<String, Integer> statements = requestStatements.get();
+        if (statements != null) {
+            queryInfoList.forEach(query -> statements.merge(query.getQuery(), 1, Integer::sum));
+        }
+
+        if (execInfo.getElapsedTime() >= slowThresholdMs) {
+            for (QueryInfo query : queryInfoList) {
+                String plan = explain(execInfo, query);
+                log.warn("Slow query took {} ms: {}", execInfo.getElapsedTime(), query.getQuery());
+                slowQueries.add(new SlowQuery(LocalDateTime.now(), execInfo.getElapsedTime(),
+                        truncate(query.getQuery()), plan));
+            }
+        }
+    }
+
+    void beginRequest() {
+        requestStatements.set(new HashMap<>());
+    }
+
+    void endRequest(String method, String path) {
+        Map<String, Integer> statements = requestStatements.get();
+        requestStatements.remove();
+        if (statements == null) {
+            return;
+        }
+        int total = statements.values().stream().mapToInt(Integer::intValue).sum();
+        if (total <= requestStatementLimit) {
+            return;
+        }
+        Map.Entry<String, Integer> mostRepeated = statements.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElseThrow();
+        log.warn("{} {} ran {} statements, over the limit of {}; {} x {}", method, path, total,
+                requestStatementLimit, mostRepeated.getValue(), mostRepeated.getKey());
+        flaggedRequests.add(new FlaggedRequest(LocalDateTime.now(), method, path, total,
+                truncate(mostRepeated.getKey()), mostRepeated.getValue()));
+    }
+
+    public List<SlowQuery> getSlowQueries() {
+        return slowQueries.newestFirst();
+    }
+
+    public List<FlaggedRequest> getFlaggedRequests() {
+        return flaggedRequests.newestFirst();
+    }
+
+    public void clear() {
+        slowQueries.clear();
+        flaggedRequests.clear();
+    }
+
+    private String explain(ExecutionInfo execInfo, QueryInfo query) {
+        String sql = query.getQuery().trim();
+        String keyword = sql.split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+        if (!List.of("SELECT", "WITH", "INSERT", "UPDATE", "DELETE", "MERGE").contains(keyword)) {
+            return null;
+        }
+        try {
+            Connection connection = execInfo.getStatement().getConnection();
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                // Replay the parameters of the first execution, batches share one plan
+                if (!query.getParametersList().isEmpty()) {
+                    for (ParameterSetOperation parameter : query.getParametersList().get(0)) {
+                        parameter.getMethod().invoke(explain, parameter.getArgs());
+                    }
+                }
+                try (ResultSet plan = explain.executeQuery()) {
+                    StringBuilder lines = new StringBuilder();
+                    while (plan.next()) {
+                        lines.append(plan.getString(1)).append('\n');
+                    }
+                    return lines.toString().trim();
+                }
+            }
+        } catch (SQLException | ReflectiveOperationException | RuntimeException e) {
+            log.debug("Could not explain {}", sql, e);
+            return "Plan not available: " + e.getMessage();
+        }
+    }
+
+    private static String truncate(String sql) {
+        return sql.length() <= MAX_SQL_LENGTH ? sql : sql.substring(0, MAX_SQL_LENGTH) + "...";
+    }
+
+    public record SlowQuery(LocalDateTime executedAt, long elapsedMs, String sql, String plan) {
+    }
+
+    public record FlaggedRequest(LocalDateTime completedAt, String method, String path, int statements,
+                                 String mostRepeatedSql, int mostRepeatedCount) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.monitoring;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@code /actuator/queries}: Hibernate statistics per query, slowest total time first,
+ * together with the slow query log and the requests over the statement limit of
+ * {@link QueryMonitor}. {@code DELETE} resets all of them.
+ */
+@Component
+@Endpoint(id = "queries")
+public class QueryStatisticsEndpoint {
+
+    private final Statistics statistics;
+    private final QueryMonitor queryMonitor;
+
+    public QueryStatisticsEndpoint(EntityManagerFactory entityManagerFactory, QueryMonitor queryMonitor) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.queryMonitor = queryMonitor;
+    }
+
+    @ReadOperation
+    public QueryReport queries() {
+        List<QueryStats> queries = Arrays.stream(statistics.getQueries())
+                .map(query -> QueryStats.of(query, statistics.getQueryStatistics(query)))
+                // Named queries are registered at startup, only report the ones that ran
+                .filter(query -> query.executions() > 0)
+                .sorted(Comparator.comparingLong(QueryStats::totalTimeMs).reversed())
+                .toList();
+        Summary summary = new Summary(
+                statistics.isStatisticsEnabled(),
+                statistics.getStart().toEpochMilli(),
+                statistics.getPrepareStatementCount(),
+                statistics.getQueryExecutionCount(),
+                statistics.getQueryExecutionMaxTime(),
+                statistics.getQueryExecutionMaxTimeQueryString(),
+                statistics.getEntityLoadCount(),
+                statistics.getEntityFetchCount(),
+                statistics.getTransactionCount());
+        return new QueryReport(summary, queries, queryMonitor.getSlowQueries(), queryMonitor.getFlaggedRequests());
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.clear();
+        queryMonitor.clear();
+    }
+
+    public record QueryReport(Summary summary, List<QueryStats> queries,
+                              List<QueryMonitor.SlowQuery> slowQueries,
+                              List<QueryMonitor.FlaggedRequest> flaggedRequests) {
+    }
+
+    public record Summary(boolean enabled, long sinceEpochMs, long statements, long queryExecutions,
+                          long maxQueryTimeMs, String slowestQuery, long entityLoads, long entityFetches,
+                          long transactions) {
+    }
+
+    public record QueryStats(String query, long executions, long rows, long totalTimeMs, long meanTimeMs,
+                             long maxTimeMs, long minTimeMs) {
+
+        static QueryStats of(String query, QueryStatistics statistics) {
+            return new QueryStats(query,
+                    statistics.getExecutionCount(),
+                    statistics.getExecutionRowCount(),
+                    statistics.getExecutionTotalTime(),
+                    statistics.getExecutionAvgTime(),
+                    statistics.getExecutionMaxTime(),
+                    statistics.getExecutionMinTime());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.monitoring;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the last {@code capacity} entries, the oldest is dropped when a new one is added.
+ */
+class RingBuffer<T> {
+
+    private final int capacity;
+    private final ArrayDeque<T> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    RingBuffer(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entries = new ArrayDeque<>(this.capacity);
+    }
+
+    void add(T entry) {
+        lock.lock();
+        try {
+            if (entries.size() == capacity) {
+                entries.removeFirst();
+            }
+            entries.addLast(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Entries from the newest to the oldest.
+     */
+    List<T> newestFirst() {
+        lock.lock();
+        try {
+            List<T> copy = new ArrayList<>(entries.size());
+            entries.descendingIterator().forEachRemaining(copy::add);
+            return copy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements each request runs on its own thread, see {@link QueryMonitor}.
+ * Work handed to other threads, such as streamed responses and report jobs, is not counted.
+ */
+@Component
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    private final QueryMonitor queryMonitor;
+
+    public StatementCountFilter(QueryMonitor queryMonitor) {
+        this.queryMonitor = queryMonitor;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        queryMonitor.beginRequest();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // The mapped pattern keeps ids out of the log, e.g. /api/v1/users/{id}
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            queryMonitor.endRequest(request.getMethod(),
+                    pattern != null ? pattern.toString() : request.getRequestURI());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.service;
+
+import com.example.demo.constant.BaseResponse;
+import com.example.demo.domain.dto.request.ReportJobRequest;
+import com.example.demo.domain.dto.response.ReportJobResponse;
+import com.example.demo.service.report.ReportFile;
+
+public interface ReportJobService {
+    BaseResponse<ReportJobResponse> submitJob(ReportJobRequest request);
+    BaseResponse<ReportJobResponse> getJob(String jobId);
+    BaseResponse<ReportFile> getJobFile(String jobId);
+    BaseResponse<ReportJobResponse> cancelJob(String jobId);
+}
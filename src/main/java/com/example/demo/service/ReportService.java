@@ -1,8 +1,36 @@
 package com.example.demo.service;
 
 import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.ReportFormat;
+import com.example.demo.service.report.CachedReport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
 
 public interface ReportService {
     BaseResponse<byte[]> generateUserReport();
     BaseResponse<byte[]> generateUserExcelReport();
+    void writeUserReport(OutputStream outputStream) throws IOException;
+    void writeUserExcelReport(OutputStream outputStream) throws IOException;
+
+    /**
+     * Writes the report for users matching {@code searchText} (all users when null),
+     * reporting the number of rows written so far to {@code progress}.
+     */
+    void writeUserReport(String searchText, OutputStream outputStream, LongConsumer progress) throws IOException;
+    void writeUserExcelReport(String searchText, OutputStream outputStream, LongConsumer progress) throws IOException;
+    long countReportRows(String searchText);
+
+    /**
+     * Version of a report derived from the current state of the users table, stable
+     * while the data does not change. Used as cache key and ETag.
+     */
+    String getReportVersion(ReportFormat format, String searchText);
+
+    /**
+     * Returns the cached report for the current data version, rendering it first when
+     * there is none.
+     */
+    CachedReport getReport(ReportFormat format, String searchText, LongConsumer progress) throws IOException;
 }
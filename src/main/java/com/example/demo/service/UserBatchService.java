@@ -0,0 +1,21 @@
+package com.example.demo.service;
+
+import com.example.demo.constant.BaseResponse;
+import com.example.demo.domain.dto.request.UserBatchUpdateRequest;
+import com.example.demo.domain.dto.request.UserRequest;
+import com.example.demo.domain.dto.response.BatchResult;
+import com.example.demo.domain.dto.response.UserResponse;
+
+import java.util.List;
+
+public interface UserBatchService {
+    BaseResponse<BatchResult<UserResponse>> createUsers(List<UserRequest> requests);
+
+    /**
+     * Like {@link #createUsers} for requests the caller already validated, such as the
+     * rows of an import, so they are not validated a second time.
+     */
+    BaseResponse<BatchResult<UserResponse>> createValidatedUsers(List<UserRequest> requests);
+    BaseResponse<BatchResult<UserResponse>> updateUsers(List<UserBatchUpdateRequest> requests);
+    BaseResponse<BatchResult<Void>> deleteUsers(List<Long> ids);
+}
@@ -0,0 +1,20 @@
+package com.example.demo.service;
+
+import com.example.demo.constant.UserStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+public interface UserExportService {
+
+    /**
+     * Writes every user with {@code status} that was created or updated at or after
+     * {@code updatedSince} (both optional) as newline-delimited JSON, ordered by id.
+     * Past {@code deadline} the dump stops and ends with an {@code {"error": ...}} line
+     * instead. Returns the number of users written.
+     */
+    long writeUsersNdjson(UserStatus status, LocalDateTime updatedSince, Instant deadline,
+                          OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,14 @@
+package com.example.demo.service;
+
+import com.example.demo.constant.BaseResponse;
+import com.example.demo.domain.dto.response.UserImportResponse;
+import com.example.demo.service.importer.ImportErrorReport;
+
+import java.io.InputStream;
+
+public interface UserImportService {
+    BaseResponse<UserImportResponse> submitImport(String fileName, InputStream content);
+    BaseResponse<UserImportResponse> getImport(String importId);
+    BaseResponse<ImportErrorReport> getErrorReport(String importId);
+    BaseResponse<UserImportResponse> cancelImport(String importId);
+}
@@ -1,15 +1,27 @@
 package com.example.demo.service;
 
 import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.CountMode;
+import com.example.demo.constant.UserSortField;
 import com.example.demo.domain.dto.request.UserRequest;
+import com.example.demo.domain.dto.response.CursorPage;
+import com.example.demo.domain.dto.response.EmailAvailabilityResponse;
+import com.example.demo.domain.dto.response.SlicePage;
 import com.example.demo.domain.dto.response.UserResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 public interface UserService {
     BaseResponse<UserResponse> createUser(UserRequest request);
     BaseResponse<UserResponse> getUserById(Long id);
+    BaseResponse<Long> getUserVersion(Long id);
     BaseResponse<Page<UserResponse>> getAllUsers(String searchText, Pageable pageable);
-    BaseResponse<UserResponse> updateUser(Long id, UserRequest request);
-    BaseResponse<Void> deleteUser(Long id);
+    BaseResponse<SlicePage<UserResponse>> listUsers(String searchText, Pageable pageable, CountMode countMode);
+    BaseResponse<CursorPage<UserResponse>> scrollUsers(String searchText, UserSortField sortField,
+                                                       Sort.Direction direction, String cursor, int size);
+    BaseResponse<UserResponse> updateUser(Long id, UserRequest request, Long expectedVersion);
+    BaseResponse<Void> deleteUser(Long id, Long expectedVersion);
+    BaseResponse<UserResponse> upsertUser(UserRequest request);
+    BaseResponse<EmailAvailabilityResponse> isEmailAvailable(String email, Long excludeUserId);
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package com.example.demo.service.cache;
+
+import com.example.demo.domain.event.UserChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bloom filter of the normalized emails in the users table.
+ * <p>
+ * {@link #mightContain} returning false means no user has the email and the database
+ * probe can be skipped; true may be a false positive (about
+ * {@code app.users.email-filter.false-positive-rate}) and has to be confirmed by the
+ * database. Emails are added when a write publishes its {@link UserChangedEvent},
+ * inside the transaction, so a committed email is never reported absent. Deleted or
+ * replaced emails cannot be removed and only cost an extra probe until the next
+ * restart rebuilds the filter.
+ */
+@Component
+@Slf4j
+public class EmailBloomFilter {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Emails written before the filter is loaded, guarded by lock
+    private List<String> pending = new ArrayList<>();
+    private volatile Bits bits;
+    private volatile boolean ready;
+
+    public EmailBloomFilter(
+            DataSource dataSource,
+            @Value("${app.users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${app.users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public boolean mightContain(String email) {
+        if (!ready || email == null) {
+            return true;
+        }
+        return bits.mightContain(hash(email));
+    }
+
+    public void add(String email) {
+        if (email == null) {
+            return;
+        }
+        if (ready) {
+            bits.put(hash(email));
+            return;
+        }
+        lock.lock();
+        try {
+            if (ready) {
+                bits.put(hash(email));
+            } else if (pending != null) {
+                pending.add(email);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.nanoTime();
+        try {
+            Long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+            Bits loaded = Bits.create(Math.max(expectedInsertions, users * 2), falsePositiveRate);
+            jdbcTemplate.query("SELECT email FROM users", rs -> {
+                loaded.put(hash(rs.getString(1)));
+            });
+
+            // Emails written during the load may be missing from the query, replay them
+            lock.lock();
+            try {
+                pending.forEach(email -> loaded.put(hash(email)));
+                pending = null;
+                bits = loaded;
+                ready = true;
+            } finally {
+                lock.unlock();
+            }
+            log.info("Loaded {} emails into a {} KB bloom filter with {} hashes in {} ms", users,
+                    loaded.size() / 8 / 1024, loaded.hashes(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                pending = null;
+            } finally {
+                lock.unlock();
+            }
+            log.error("Could not build email bloom filter, email checks use the database", e);
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.user() != null) {
+            add(event.user().getEmail());
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the normalized email.
+     */
+    private static long hash(String email) {
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    record Bits(AtomicLongArray words, long size, int hashes) {
+
+        static Bits create(long insertions, double falsePositiveRate) {
+            long size = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            size = Math.max(64, (size + 63) / 64 * 64);
+            int hashes = Math.max(1, (int) Math.round((double) size / insertions * Math.log(2)));
+            return new Bits(new AtomicLongArray((int) (size / 64)), size, hashes);
+        }
+
+        void put(long hash) {
+            long h1 = hash;
+            long h2 = mix(hash);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(long hash) {
+            long h1 = hash;
+            long h2 = mix(hash);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Second, independent hash for double hashing (SplitMix64 finalizer).
+         */
+        private static long mix(long value) {
+            value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+            value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+            return (value ^ (value >>> 31)) | 1L;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.service.cache;
+
+import com.example.demo.datasource.PrimaryReads;
+import com.example.demo.domain.dto.response.UserResponse;
+import com.example.demo.domain.entity.user.UserRepository;
+import com.example.demo.domain.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Read-through cache of users by id.
+ * <p>
+ * Bounded by {@code app.users.cache.max-size} and expired after
+ * {@code app.users.cache.ttl}. Concurrent misses for the same id wait for a single
+ * database load. Updates and deletes invalidate their entry synchronously once the
+ * transaction commits, so loads read from the primary, never from a lagging replica;
+ * unknown ids are not cached. Hit, miss and eviction counts are
+ * published as the {@code cache.*} metrics with {@code cache=users}.
+ */
+@Component
+@Slf4j
+public class UserCache {
+
+    public static final String NAME = "users";
+
+    private final AsyncLoadingCache<Long, UserResponse> cache;
+
+    public UserCache(
+            UserRepository userRepository,
+            PrimaryReads primaryReads,
+            MeterRegistry meterRegistry,
+            Environment environment,
+            @Value("${app.users.cache.max-size:10000}") long maxSize,
+            @Value("${app.users.cache.ttl:5m}") Duration ttl) {
+        // Caffeine starts a load inside ConcurrentHashMap.compute, which holds a monitor. A
+        // virtual thread would stay pinned to its carrier for the whole query, so on virtual
+        // threads the load runs on a thread of its own and the caller parks on the future
+        Executor loadExecutor = Threading.VIRTUAL.isActive(environment)
+                ? new VirtualThreadTaskExecutor("user-cache-")
+                : Runnable::run;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .executor(loadExecutor)
+                .buildAsync(id -> primaryReads.read(() -> userRepository.findResponseById(id).orElse(null)));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    /**
+     * The user with {@code id}, or null when it does not exist.
+     */
+    public UserResponse get(Long id) {
+        return cache.get(id).join();
+    }
+
+    public void invalidate(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() != UserChangedEvent.Type.CREATED) {
+            log.debug("User {} {}, evicting cached entry", event.userId(), event.type());
+            invalidate(event.userId());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.service.cache;
+
+import com.example.demo.datasource.PrimaryReads;
+import com.example.demo.domain.event.UserChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Short lived user counts keyed by search text.
+ * <p>
+ * A search count repeats the full {@code LIKE} scan of the listing, so paging through
+ * the same search reuses one count for {@code app.users.count-cache.ttl}. Every user
+ * write clears the cache once its transaction commits, so counts are taken on the
+ * primary, never on a lagging replica.
+ */
+@Component
+@Slf4j
+public class UserCountCache {
+
+    private static final String ALL_USERS = "";
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+    private final PrimaryReads primaryReads;
+
+    public UserCountCache(
+            PrimaryReads primaryReads,
+            @Value("${app.users.count-cache.ttl:30s}") Duration ttl,
+            @Value("${app.users.count-cache.max-entries:1000}") int maxEntries) {
+        this.primaryReads = primaryReads;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public long get(String searchText, ToLongFunction<String> counter) {
+        String key = searchText == null ? ALL_USERS : searchText.toLowerCase(Locale.ROOT);
+        long now = System.nanoTime();
+        CachedCount cached = counts.get(key);
+        if (cached != null && now - cached.loadedAt() < ttlNanos) {
+            return cached.count();
+        }
+
+        long count = primaryReads.read(() -> counter.applyAsLong(searchText));
+        if (counts.size() >= maxEntries) {
+            counts.values().removeIf(entry -> now - entry.loadedAt() >= ttlNanos);
+            if (counts.size() >= maxEntries) {
+                counts.clear();
+            }
+        }
+        counts.put(key, new CachedCount(count, now));
+        return count;
+    }
+
+    public void invalidateAll() {
+        counts.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        log.debug("User {} {}, clearing cached counts", event.userId(), event.type());
+        invalidateAll();
+    }
+
+    private record CachedCount(long count, long loadedAt) {
+    }
+}
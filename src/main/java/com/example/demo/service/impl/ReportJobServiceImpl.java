@@ -0,0 +1,173 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.ErrorCode;
+import com.example.demo.constant.ReportJobStatus;
+import com.example.demo.domain.dto.request.ReportJobRequest;
+import com.example.demo.domain.dto.response.ReportJobResponse;
+import com.example.demo.service.ReportJobService;
+import com.example.demo.service.ReportService;
+import com.example.demo.service.job.JobRunner;
+import com.example.demo.service.report.CachedReport;
+import com.example.demo.service.report.ReportFile;
+import com.example.demo.service.report.ReportJob;
+import com.example.demo.service.report.ReportJobCancelledException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Runs report exports on a dedicated, bounded pool and keeps the results on disk
+ * until they expire.
+ * <p>
+ * Timeouts are cooperative: the writer checks the job on every row and stops once
+ * the deadline passed. Threads are never interrupted because an interrupt closes
+ * the H2 file channel under a running query.
+ */
+@Service
+@Slf4j
+public class ReportJobServiceImpl implements ReportJobService {
+
+    private final ReportService reportService;
+    private final JobRunner<ReportJob> runner;
+    private final Duration timeout;
+    private final Path directory;
+
+    public ReportJobServiceImpl(
+            ReportService reportService,
+            Environment environment,
+            @Value("${app.report.jobs.pool-size:2}") int poolSize,
+            @Value("${app.report.jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${app.report.jobs.timeout:5m}") Duration timeout,
+            @Value("${app.report.jobs.retention:30m}") Duration retention,
+            @Value("${app.report.jobs.directory:${java.io.tmpdir}/user-reports}") String directory) throws IOException {
+        this.reportService = reportService;
+        this.timeout = timeout;
+        this.directory = Files.createDirectories(Paths.get(directory));
+        this.runner = new JobRunner<>("report-job", poolSize, queueCapacity, retention, environment);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdown();
+    }
+
+    @Override
+    public BaseResponse<ReportJobResponse> submitJob(ReportJobRequest request) {
+        String searchText = request.getSearch() == null || request.getSearch().isBlank()
+                ? null : request.getSearch().trim();
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), request.getFormat(), searchText,
+                Instant.now().plus(timeout));
+
+        if (!runner.submit(job, this::run)) {
+            log.warn("Rejected {} report job, queue is full", request.getFormat());
+            return BaseResponse.error(
+                    HttpStatus.TOO_MANY_REQUESTS.value(),
+                    ErrorCode.REPORT_QUEUE_FULL
+            );
+        }
+
+        log.info("Queued {} report job {}", job.getFormat(), job.getId());
+        return BaseResponse.ok(toResponse(job));
+    }
+
+    @Override
+    public BaseResponse<ReportJobResponse> getJob(String jobId) {
+        ReportJob job = runner.get(jobId);
+        if (job == null) {
+            return jobNotFound();
+        }
+        return BaseResponse.ok(toResponse(job));
+    }
+
+    @Override
+    public BaseResponse<ReportFile> getJobFile(String jobId) {
+        ReportJob job = runner.get(jobId);
+        if (job == null) {
+            return jobNotFound();
+        }
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            return BaseResponse.error(
+                    HttpStatus.CONFLICT.value(),
+                    ErrorCode.REPORT_NOT_READY
+            );
+        }
+        return BaseResponse.ok(new ReportFile(job.getFileName(), job.getFormat().getContentType(),
+                job.getFile(), job.getFileSize(), job.getVersion()));
+    }
+
+    @Override
+    public BaseResponse<ReportJobResponse> cancelJob(String jobId) {
+        ReportJob job = runner.get(jobId);
+        if (job == null) {
+            return jobNotFound();
+        }
+        if (job.cancel()) {
+            log.info("Cancelled report job {}", jobId);
+        }
+        return BaseResponse.ok(toResponse(job));
+    }
+
+    private void run(ReportJob job) {
+        if (!job.start()) {
+            return;
+        }
+
+        Path file = directory.resolve(job.getId() + "." + job.getFormat().getExtension());
+        try {
+            job.setTotalRows(reportService.countReportRows(job.getSearchText()));
+            // Unchanged data is served from the report cache without rendering again
+            CachedReport report = reportService.getReport(job.getFormat(), job.getSearchText(), job::progress);
+            try (report; OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file))) {
+                report.writeTo(outputStream);
+            }
+            if (job.complete(file, report.size(), report.version())) {
+                log.info("Report job {} completed, {} rows", job.getId(), job.getProcessedRows());
+                return;
+            }
+        } catch (ReportJobCancelledException e) {
+            log.info("Report job {} stopped: {}", job.getId(), job.getStatus());
+        } catch (Exception e) {
+            log.error("Report job {} failed: ", job.getId(), e);
+            job.fail("Error generating " + job.getFormat() + " report");
+        }
+        JobRunner.deleteQuietly(file);
+    }
+
+    private ReportJobResponse toResponse(ReportJob job) {
+        return ReportJobResponse.builder()
+                .id(job.getId())
+                .format(job.getFormat())
+                .search(job.getSearchText())
+                .status(job.getStatus())
+                .processedRows(job.getProcessedRows())
+                .totalRows(job.getTotalRows())
+                .progress(job.getProgress())
+                .fileSize(job.getFileSize())
+                .message(job.getMessage())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private <T> BaseResponse<T> jobNotFound() {
+        return BaseResponse.error(
+                HttpStatus.NOT_FOUND.value(),
+                ErrorCode.REPORT_JOB_NOT_FOUND
+        );
+    }
+}
@@ -1,179 +1,341 @@
 package com.example.demo.service.impl;
 
 import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.ErrorCode;
+import com.example.demo.constant.ReportFormat;
+import com.example.demo.domain.dto.UserDataVersion;
 import com.example.demo.domain.dto.UserReportDTO;
-import com.example.demo.domain.entity.user.User;
 import com.example.demo.domain.entity.user.UserRepository;
 import com.example.demo.service.ReportService;
-import com.example.demo.util.Helper;
+import com.example.demo.service.report.CachedReport;
+import com.example.demo.service.report.ReportCache;
+import com.example.demo.service.report.ReportTemplateRegistry;
+import com.example.demo.service.report.UserExcelReportWriter;
+import com.example.demo.service.report.UserReportDataSource;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import net.sf.jasperreports.engine.*;
-import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.ResourceLoader;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("report.service")
 @Slf4j
 public class ReportServiceImpl implements ReportService {
 
+    private static final int VIRTUALIZER_MAX_PAGES = 50;
+    private static final long RENDER_WAIT_CHECK_MS = 1000;
+    private static final LongConsumer NO_PROGRESS = rows -> {
+    };
+
     private final UserRepository userRepository;
-    private final ResourceLoader resourceLoader;
-    private final Helper helper;
+    private final ReportTemplateRegistry templateRegistry;
+    private final UserExcelReportWriter excelReportWriter;
+    private final ReportCache reportCache;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate readOnly;
+    // Renders in progress by version, completed once the report is cached or failed
+    private final Map<String, CompletableFuture<Void>> renders = new ConcurrentHashMap<>();
 
     public ReportServiceImpl(
             UserRepository userRepository,
-            ResourceLoader resourceLoader,
-            Helper helper) {
+            ReportTemplateRegistry templateRegistry,
+            UserExcelReportWriter excelReportWriter,
+            ReportCache reportCache,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
-        this.resourceLoader = resourceLoader;
-        this.helper = helper;
+        this.templateRegistry = templateRegistry;
+        this.excelReportWriter = excelReportWriter;
+        this.reportCache = reportCache;
+        this.meterRegistry = meterRegistry;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
     }
 
     @Override
     public BaseResponse<byte[]> generateUserReport() {
         try {
-            // Load template
-            Resource resource = resourceLoader.getResource("classpath:reports/user_report.jrxml");
-            JasperReport jasperReport = JasperCompileManager.compileReport(resource.getInputStream());
-
-            // Get data and convert to DTO
-            List<User> users = userRepository.findAll();
-            List<UserReportDTO> reportData = users.stream()
-                    .map(user -> helper.getModelMapper().map(user, UserReportDTO.class))
-                    .collect(Collectors.toList());
-
-            // Set parameters
-            Map<String, Object> parameters = new HashMap<>();
-            parameters.put("reportTitle", "User Report");
-            parameters.put("generatedDate", new Date());
-            parameters.put("totalUsers", reportData.size());
-            parameters.put("REPORT_LOCALE", new Locale("en", "US"));
-
-            // Generate report
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            getReport(ReportFormat.PDF, null, NO_PROGRESS).writeTo(outputStream);
+            return BaseResponse.ok(outputStream.toByteArray());
+
+        } catch (Exception e) {
+            log.error("Error generating PDF report: ", e);
+            return BaseResponse.error(
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
+                    "Error generating PDF report"
+            );
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeUserReport(OutputStream outputStream) throws IOException {
+        writeUserReport(null, outputStream, NO_PROGRESS);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeUserReport(String searchText, OutputStream outputStream, LongConsumer progress)
+            throws IOException {
+        // Load compiled template
+        JasperReport jasperReport = templateRegistry.get(ReportTemplateRegistry.USER_REPORT);
+
+        // Filled pages beyond the in-memory limit are swapped to disk
+        JRSwapFileVirtualizer virtualizer = new JRSwapFileVirtualizer(
+                VIRTUALIZER_MAX_PAGES,
+                new JRSwapFile(System.getProperty("java.io.tmpdir"), 4096, 1024),
+                true
+        );
+
+        // Set parameters
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("reportTitle", "User Report");
+        parameters.put("generatedDate", new Date());
+        parameters.put("totalUsers", Math.toIntExact(userRepository.countForReport(searchText)));
+        parameters.put("REPORT_LOCALE", new Locale("en", "US"));
+        parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+
+        try (Stream<UserReportDTO> rows = userRepository.streamReportRows(searchText)) {
+            // Rows are pulled from the cursor while the report is filled
+            Timer.Sample fill = Timer.start(meterRegistry);
             JasperPrint jasperPrint = JasperFillManager.fillReport(
                     jasperReport,
                     parameters,
-                    new JRBeanCollectionDataSource(reportData)
+                    new UserReportDataSource(withProgress(rows, progress))
             );
+            fill.stop(reportTimer("report.fill", ReportFormat.PDF));
+            virtualizer.setReadOnly(true);
 
             // Set margins and other properties
             jasperPrint.setLeftMargin(40);
             jasperPrint.setRightMargin(40);
 
-            byte[] reportBytes = JasperExportManager.exportReportToPdf(jasperPrint);
+            CountingOutputStream counting = new CountingOutputStream(outputStream);
+            Timer.Sample export = Timer.start(meterRegistry);
+            JasperExportManager.exportReportToPdfStream(jasperPrint, counting);
+            export.stop(reportTimer("report.export", ReportFormat.PDF));
+            reportSize(ReportFormat.PDF).record(counting.count);
+        } catch (JRException e) {
+            throw new IOException("Error generating PDF report", e);
+        } finally {
+            virtualizer.cleanup();
+        }
+    }
 
-            return BaseResponse.ok(reportBytes);
+    @Override
+    public BaseResponse<byte[]> generateUserExcelReport() {
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            getReport(ReportFormat.EXCEL, null, NO_PROGRESS).writeTo(outputStream);
+            return BaseResponse.ok(outputStream.toByteArray());
 
         } catch (Exception e) {
-            log.error("Error generating PDF report: ", e);
+            log.error("Error generating Excel report: ", e);
             return BaseResponse.error(
                     HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                    "Error generating PDF report"
+                    ErrorCode.SYSTEM_ERROR,
+                    "Error generating Excel report"
             );
         }
     }
 
     @Override
-    public BaseResponse<byte[]> generateUserExcelReport() {
-        try {
-            List<User> users = userRepository.findAll();
-            List<UserReportDTO> reportData = users.stream()
-                    .map(user -> helper.getModelMapper().map(user, UserReportDTO.class))
-                    .toList();
-
-            XSSFWorkbook workbook = new XSSFWorkbook();
-            XSSFSheet sheet = workbook.createSheet("Users");
-
-            // Style untuk header
-            CellStyle headerStyle = workbook.createCellStyle();
-            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            headerStyle.setBorderBottom(BorderStyle.THIN);
-            headerStyle.setBorderTop(BorderStyle.THIN);
-            headerStyle.setBorderLeft(BorderStyle.THIN);
-            headerStyle.setBorderRight(BorderStyle.THIN);
-            headerStyle.setAlignment(HorizontalAlignment.CENTER);
-
-            // Style untuk data cells
-            CellStyle dataStyle = workbook.createCellStyle();
-            dataStyle.setBorderBottom(BorderStyle.THIN);
-            dataStyle.setBorderTop(BorderStyle.THIN);
-            dataStyle.setBorderLeft(BorderStyle.THIN);
-            dataStyle.setBorderRight(BorderStyle.THIN);
-            dataStyle.setAlignment(HorizontalAlignment.LEFT);
-
-            // Create header
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"ID", "First Name", "Last Name", "Email", "Phone Number", "Status"};
-
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Fill data
-            int rowNum = 1;
-            for (UserReportDTO user : reportData) {
-                Row row = sheet.createRow(rowNum++);
+    @Transactional(readOnly = true)
+    public void writeUserExcelReport(OutputStream outputStream) throws IOException {
+        writeUserExcelReport(null, outputStream, NO_PROGRESS);
+    }
 
-                Cell idCell = row.createCell(0);
-                idCell.setCellValue(user.getId());
-                idCell.setCellStyle(dataStyle);
+    @Override
+    @Transactional(readOnly = true)
+    public void writeUserExcelReport(String searchText, OutputStream outputStream, LongConsumer progress)
+            throws IOException {
+        try (Stream<UserReportDTO> rows = userRepository.streamReportRows(searchText)) {
+            // The workbook is filled and written in one pass, so it is timed as a whole
+            CountingOutputStream counting = new CountingOutputStream(outputStream);
+            Timer.Sample export = Timer.start(meterRegistry);
+            excelReportWriter.write(withProgress(rows, progress), counting);
+            export.stop(reportTimer("report.export", ReportFormat.EXCEL));
+            reportSize(ReportFormat.EXCEL).record(counting.count);
+        }
+    }
 
-                Cell firstNameCell = row.createCell(1);
-                firstNameCell.setCellValue(user.getFirstName());
-                firstNameCell.setCellStyle(dataStyle);
+    @Override
+    @Transactional(readOnly = true)
+    public long countReportRows(String searchText) {
+        return userRepository.countForReport(searchText);
+    }
 
-                Cell lastNameCell = row.createCell(2);
-                lastNameCell.setCellValue(user.getLastName());
-                lastNameCell.setCellStyle(dataStyle);
+    private Iterator<UserReportDTO> withProgress(Stream<UserReportDTO> rows, LongConsumer progress) {
+        AtomicLong count = new AtomicLong();
+        return rows.map(row -> {
+            progress.accept(count.incrementAndGet());
+            return row;
+        }).iterator();
+    }
 
-                Cell emailCell = row.createCell(3);
-                emailCell.setCellValue(user.getEmail());
-                emailCell.setCellStyle(dataStyle);
+    @Override
+    @Transactional(readOnly = true)
+    public String getReportVersion(ReportFormat format, String searchText) {
+        UserDataVersion dataVersion = userRepository.findDataVersion();
+        String key = String.join("|",
+                format.name(),
+                Objects.toString(searchText, ""),
+                String.valueOf(dataVersion.getRowCount()),
+                String.valueOf(dataVersion.getLastCreatedAt()),
+                String.valueOf(dataVersion.getLastUpdatedAt()));
+        return DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8));
+    }
 
-                Cell phoneCell = row.createCell(4);
-                phoneCell.setCellValue(user.getPhoneNumber());
-                phoneCell.setCellStyle(dataStyle);
+    /**
+     * Deliberately not transactional: a request waiting for another render of the same
+     * version would hold a pooled connection for nothing. Only the version lookup and the
+     * render itself run in a transaction.
+     */
+    @Override
+    public CachedReport getReport(ReportFormat format, String searchText, LongConsumer progress) throws IOException {
+        String version = readOnly.execute(status -> getReportVersion(format, searchText));
+        while (true) {
+            Optional<CachedReport> cached = reportCache.get(version);
+            if (cached.isPresent()) {
+                log.info("Serving cached {} report {}", format, version);
+                return cached.get();
+            }
 
-                Cell statusCell = row.createCell(5);
-                statusCell.setCellValue(user.getStatus().name());
-                statusCell.setCellStyle(dataStyle);
+            CompletableFuture<Void> render = new CompletableFuture<>();
+            CompletableFuture<Void> running = renders.putIfAbsent(version, render);
+            if (running == null) {
+                try {
+                    return render(format, searchText, progress, version);
+                } finally {
+                    renders.remove(version, render);
+                    render.complete(null);
+                }
             }
+            // Another request renders the same version, take it from the cache once done. Should
+            // that render fail or the cache be cleared meanwhile, the next round renders it here
+            log.info("Waiting for the {} report {} being rendered", format, version);
+            awaitRender(running, progress);
+        }
+    }
 
-            // Auto size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-                // Set minimum width
-                int currentWidth = sheet.getColumnWidth(i);
-                if (currentWidth < 3000) {
-                    sheet.setColumnWidth(i, 3000);
+    private CachedReport render(ReportFormat format, String searchText, LongConsumer progress, String version)
+            throws IOException {
+        Path file = Files.createTempFile("user-report-", "." + format.getExtension());
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file))) {
+            // The rows are streamed from a cursor, which needs the transaction for the whole render
+            readOnly.executeWithoutResult(status -> {
+                try {
+                    switch (format) {
+                        case PDF -> writeUserReport(searchText, outputStream, progress);
+                        case EXCEL -> writeUserExcelReport(searchText, outputStream, progress);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
+            });
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(file);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return reportCache.put(version, file);
+    }
+
+    /**
+     * Waits for another render, reporting no progress now and then so a cancelled or
+     * expired report job stops waiting.
+     */
+    private static void awaitRender(CompletableFuture<Void> render, LongConsumer progress) throws IOException {
+        while (true) {
+            try {
+                render.get(RENDER_WAIT_CHECK_MS, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                progress.accept(0);
+            } catch (ExecutionException e) {
+                // Never completed exceptionally, a failed render just ends the wait
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a report render");
             }
+        }
+    }
 
-            // Convert to bytes
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            workbook.close();
+    private Timer reportTimer(String name, ReportFormat format) {
+        return Timer.builder(name)
+                .tag("format", format.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
 
-            return BaseResponse.ok(outputStream.toByteArray());
+    private DistributionSummary reportSize(ReportFormat format) {
+        return DistributionSummary.builder("report.size")
+                .baseUnit("bytes")
+                .tag("format", format.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
 
-        } catch (Exception e) {
-            log.error("Error generating Excel report: ", e);
-            return BaseResponse.error(
-                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                    "Error generating Excel report"
-            );
+    /**
+     * Counts the bytes of a report on their way to the output.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
         }
     }
 }
@@ -0,0 +1,383 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.constant.AppConstant;
+import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.ErrorCode;
+import com.example.demo.constant.UserStatus;
+import com.example.demo.domain.dto.request.UserBatchUpdateRequest;
+import com.example.demo.domain.dto.request.UserRequest;
+import com.example.demo.domain.dto.response.BatchItemResult;
+import com.example.demo.domain.dto.response.BatchResult;
+import com.example.demo.domain.dto.response.UserResponse;
+import com.example.demo.domain.entity.user.User;
+import com.example.demo.domain.entity.user.UserRepository;
+import com.example.demo.domain.event.UserChangedEvent;
+import com.example.demo.domain.mapper.UserMapper;
+import com.example.demo.service.UserBatchService;
+import com.example.demo.service.cache.EmailBloomFilter;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user writes.
+ * <p>
+ * A batch is validated up front, email uniqueness is checked with one {@code IN}
+ * query, and the remaining items are written in chunks of
+ * {@code app.users.batch.chunk-size}, each in its own transaction so Hibernate can
+ * send them as JDBC batches. A failing chunk is split and retried until the
+ * failing items are isolated, so only they fail, each with its own error.
+ */
+@Service
+@Timed("user.service")
+@Slf4j
+public class UserBatchServiceImpl implements UserBatchService {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final EmailBloomFilter emailFilter;
+    private final int maxItems;
+    private final int chunkSize;
+
+    public UserBatchServiceImpl(
+            UserRepository userRepository,
+            UserMapper userMapper,
+            Validator validator,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            EmailBloomFilter emailFilter,
+            @Value("${app.users.batch.max-items:1000}") int maxItems,
+            @Value("${app.users.batch.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.emailFilter = emailFilter;
+        this.maxItems = maxItems;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public BaseResponse<BatchResult<UserResponse>> createUsers(List<UserRequest> requests) {
+        return createUsers(requests, true);
+    }
+
+    @Override
+    public BaseResponse<BatchResult<UserResponse>> createValidatedUsers(List<UserRequest> requests) {
+        return createUsers(requests, false);
+    }
+
+    private BaseResponse<BatchResult<UserResponse>> createUsers(List<UserRequest> requests, boolean validate) {
+        if (requests == null || requests.isEmpty() || requests.size() > maxItems) {
+            return BaseResponse.error(HttpStatus.BAD_REQUEST.value(), ErrorCode.INVALID_BATCH_SIZE);
+        }
+        try {
+            log.info("Creating {} users in batch", requests.size());
+            List<BatchItemResult<UserResponse>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+            List<Integer> pending = new ArrayList<>();
+            Set<String> emails = new HashSet<>();
+
+            for (int i = 0; i < requests.size(); i++) {
+                UserRequest request = requests.get(i);
+                String violation = validate ? validate(request) : null;
+                if (violation != null) {
+                    results.set(i, failed(i, null, violation));
+                } else if (!emails.add(request.getEmail())) {
+                    results.set(i, failed(i, null, ErrorCode.EMAIL_ALREADY_EXISTS.getMessage()));
+                } else {
+                    pending.add(i);
+                }
+            }
+
+            Set<String> existing = findExistingEmails(emails);
+            pending.removeIf(i -> {
+                if (existing.contains(requests.get(i).getEmail())) {
+                    results.set(i, failed(i, null, ErrorCode.EMAIL_ALREADY_EXISTS.getMessage()));
+                    return true;
+                }
+                return false;
+            });
+
+            for (List<Integer> chunk : chunks(pending)) {
+                writeChunk(chunk, results, "Error creating user",
+                        (i, message) -> failed(i, null, message), part -> {
+                    List<User> users = part.stream().map(i -> toNewUser(requests.get(i))).toList();
+                    List<User> saved = userRepository.saveAll(users);
+                    userRepository.flush();
+                    Map<Integer, BatchItemResult<UserResponse>> outcome = new HashMap<>();
+                    for (int j = 0; j < part.size(); j++) {
+                        User user = saved.get(j);
+                        UserResponse response = userMapper.toResponse(user);
+                        eventPublisher.publishEvent(
+                                new UserChangedEvent(UserChangedEvent.Type.CREATED, user.getId(), response));
+                        outcome.put(part.get(j), succeeded(part.get(j), user.getId(), response));
+                    }
+                    return outcome;
+                });
+            }
+
+            return BaseResponse.ok(summarize(results));
+        } catch (Exception e) {
+            log.error("Error creating users: ", e);
+            return BaseResponse.error(
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
+                    "Error creating users"
+            );
+        }
+    }
+
+    @Override
+    public BaseResponse<BatchResult<UserResponse>> updateUsers(List<UserBatchUpdateRequest> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > maxItems) {
+            return BaseResponse.error(HttpStatus.BAD_REQUEST.value(), ErrorCode.INVALID_BATCH_SIZE);
+        }
+        try {
+            log.info("Updating {} users in batch", requests.size());
+            List<BatchItemResult<UserResponse>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+            List<Integer> pending = new ArrayList<>();
+            Set<Long> ids = new HashSet<>();
+            Set<String> emails = new HashSet<>();
+
+            for (int i = 0; i < requests.size(); i++) {
+                UserBatchUpdateRequest request = requests.get(i);
+                Long id = request != null ? request.getId() : null;
+                String violation = id == null ? "Id is required" : validate(request.getUser());
+                if (violation != null) {
+                    results.set(i, failed(i, id, violation));
+                } else if (!ids.add(id)) {
+                    results.set(i, failed(i, id, ErrorCode.DUPLICATE_BATCH_ITEM.getMessage()));
+                } else if (!emails.add(request.getUser().getEmail())) {
+                    results.set(i, failed(i, id, ErrorCode.EMAIL_ALREADY_EXISTS.getMessage()));
+                } else {
+                    pending.add(i);
+                }
+            }
+
+            Set<String> existing = findExistingEmails(emails);
+
+            for (List<Integer> chunk : chunks(pending)) {
+                writeChunk(chunk, results, "Error updating user",
+                        (i, message) -> failed(i, requests.get(i).getId(), message), part -> {
+                    Map<Long, User> users = userRepository.findAllById(
+                                    part.stream().map(i -> requests.get(i).getId()).toList()).stream()
+                            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+                    Map<Integer, User> updated = new LinkedHashMap<>();
+                    Map<Integer, BatchItemResult<UserResponse>> outcome = new HashMap<>();
+                    for (int i : part) {
+                        UserBatchUpdateRequest request = requests.get(i);
+                        User user = users.get(request.getId());
+                        UserRequest changes = request.getUser();
+                        if (user == null) {
+                            outcome.put(i, failed(i, request.getId(), ErrorCode.USER_NOT_FOUND.getMessage()));
+                        } else if (!user.getEmail().equals(changes.getEmail())
+                                && existing.contains(changes.getEmail())) {
+                            outcome.put(i, failed(i, request.getId(), ErrorCode.EMAIL_ALREADY_EXISTS.getMessage()));
+                        } else {
+                            userMapper.updateEntity(changes, user);
+                            if (changes.getStatus() != null) {
+                                user.setStatus(changes.getStatus());
+                            }
+                            updated.put(i, user);
+                        }
+                    }
+
+                    // Dirty checking flushes the chunk as one ordered JDBC batch
+                    userRepository.flush();
+                    updated.forEach((i, user) -> {
+                        UserResponse response = userMapper.toResponse(user);
+                        eventPublisher.publishEvent(
+                                new UserChangedEvent(UserChangedEvent.Type.UPDATED, user.getId(), response));
+                        outcome.put(i, succeeded(i, user.getId(), response));
+                    });
+                    return outcome;
+                });
+            }
+
+            return BaseResponse.ok(summarize(results));
+        } catch (Exception e) {
+            log.error("Error updating users: ", e);
+            return BaseResponse.error(
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
+                    "Error updating users"
+            );
+        }
+    }
+
+    @Override
+    public BaseResponse<BatchResult<Void>> deleteUsers(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > maxItems) {
+            return BaseResponse.error(HttpStatus.BAD_REQUEST.value(), ErrorCode.INVALID_BATCH_SIZE);
+        }
+        try {
+            log.info("Deleting {} users in batch", ids.size());
+            List<BatchItemResult<Void>> results = new ArrayList<>(Collections.nCopies(ids.size(), null));
+            List<Integer> pending = new ArrayList<>();
+            Set<Long> seen = new HashSet<>();
+
+            for (int i = 0; i < ids.size(); i++) {
+                Long id = ids.get(i);
+                if (id == null) {
+                    results.set(i, failed(i, null, "Id is required"));
+                } else if (!seen.add(id)) {
+                    results.set(i, failed(i, id, ErrorCode.DUPLICATE_BATCH_ITEM.getMessage()));
+                } else {
+                    pending.add(i);
+                }
+            }
+
+            for (List<Integer> chunk : chunks(pending)) {
+                writeChunk(chunk, results, "Error deleting user",
+                        (i, message) -> failed(i, ids.get(i), message), part -> {
+                    List<Long> found = userRepository.findExistingIds(part.stream().map(ids::get).toList());
+                    // One DELETE ... WHERE id IN statement for the whole chunk
+                    userRepository.deleteAllByIdInBatch(found);
+                    found.forEach(id -> eventPublisher.publishEvent(
+                            new UserChangedEvent(UserChangedEvent.Type.DELETED, id, null)));
+                    Map<Integer, BatchItemResult<Void>> outcome = new HashMap<>();
+                    for (int i : part) {
+                        Long id = ids.get(i);
+                        outcome.put(i, found.contains(id)
+                                ? succeeded(i, id, null)
+                                : failed(i, id, ErrorCode.USER_NOT_FOUND.getMessage()));
+                    }
+                    return outcome;
+                });
+            }
+
+            return BaseResponse.ok(summarize(results));
+        } catch (Exception e) {
+            log.error("Error deleting users: ", e);
+            return BaseResponse.error(
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
+                    "Error deleting users"
+            );
+        }
+    }
+
+    /**
+     * Writes a chunk in one transaction. When it fails, both halves are retried on their
+     * own until the failing items are isolated, so a single bad item, such as an email a
+     * concurrent write just took, costs the others a few more round trips but not their
+     * results.
+     */
+    private <T> void writeChunk(List<Integer> chunk, List<BatchItemResult<T>> results, String error,
+                                BiFunction<Integer, String, BatchItemResult<T>> failed,
+                                Function<List<Integer>, Map<Integer, BatchItemResult<T>>> write) {
+        try {
+            transactionTemplate.execute(status -> write.apply(chunk)).forEach(results::set);
+        } catch (Exception e) {
+            if (chunk.size() > 1) {
+                log.warn("Batch chunk of {} users failed, retrying it in halves: {}", chunk.size(), e.getMessage());
+                int half = chunk.size() / 2;
+                writeChunk(chunk.subList(0, half), results, error, failed, write);
+                writeChunk(chunk.subList(half, chunk.size()), results, error, failed, write);
+            } else if (e instanceof DataIntegrityViolationException violation && isUniqueViolation(violation)) {
+                results.set(chunk.get(0), failed.apply(chunk.get(0), ErrorCode.EMAIL_ALREADY_EXISTS.getMessage()));
+            } else {
+                log.error("{}: ", error, e);
+                results.set(chunk.get(0), failed.apply(chunk.get(0), error));
+            }
+        }
+    }
+
+    /**
+     * Ids come from a sequence, so the email is the only unique key a write can violate.
+     */
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String validate(UserRequest request) {
+        if (request == null) {
+            return ErrorCode.VALIDATION_ERROR.getMessage();
+        }
+        Set<ConstraintViolation<UserRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Only emails the bloom filter cannot rule out are looked up.
+     */
+    private Set<String> findExistingEmails(Set<String> emails) {
+        Set<String> candidates = emails.stream().filter(emailFilter::mightContain).collect(Collectors.toSet());
+        return candidates.isEmpty() ? Set.of() : userRepository.findExistingEmails(candidates);
+    }
+
+    private User toNewUser(UserRequest request) {
+        User user = userMapper.toEntity(request);
+        user.setStatus(request.getStatus() != null ? request.getStatus() : UserStatus.ACTIVE);
+        return user;
+    }
+
+    private List<List<Integer>> chunks(List<Integer> indexes) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < indexes.size(); from += chunkSize) {
+            chunks.add(indexes.subList(from, Math.min(from + chunkSize, indexes.size())));
+        }
+        return chunks;
+    }
+
+    private <T> BatchItemResult<T> succeeded(int index, Long id, T data) {
+        return BatchItemResult.<T>builder()
+                .index(index)
+                .id(id)
+                .status(AppConstant.SUCCESS)
+                .message(AppConstant.SUCCESS_MESSAGE)
+                .data(data)
+                .build();
+    }
+
+    private <T> BatchItemResult<T> failed(int index, Long id, String message) {
+        return BatchItemResult.<T>builder()
+                .index(index)
+                .id(id)
+                .status(AppConstant.ERROR)
+                .message(message)
+                .build();
+    }
+
+    private <T> BatchResult<T> summarize(List<BatchItemResult<T>> results) {
+        int succeeded = (int) results.stream().filter(r -> AppConstant.SUCCESS.equals(r.getStatus())).count();
+        return BatchResult.<T>builder()
+                .total(results.size())
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .items(results)
+                .build();
+    }
+}
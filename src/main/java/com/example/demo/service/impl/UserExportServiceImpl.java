@@ -0,0 +1,137 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.constant.UserStatus;
+import com.example.demo.domain.dto.response.UserResponse;
+import com.example.demo.service.UserExportService;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full user dumps as newline-delimited JSON.
+ * <p>
+ * One query is read through a forward-only cursor and every row is written to the
+ * response as soon as it is read, without loading entities into the persistence
+ * context. The first row is flushed immediately and later rows every
+ * {@link #FLUSH_ROWS}, so memory stays flat whatever the size of the table.
+ * <p>
+ * The deadline is checked on every row, like the report jobs' timeout, rather than
+ * interrupting the thread, which would close the H2 file channel under the cursor. A
+ * dump cut short ends with an error line, so consumers can tell it is incomplete.
+ */
+@Service
+@Slf4j
+public class UserExportServiceImpl implements UserExportService {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int FLUSH_ROWS = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public UserExportServiceImpl(DataSource dataSource, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long writeUsersNdjson(UserStatus status, LocalDateTime updatedSince, Instant deadline,
+                                 OutputStream outputStream) throws IOException {
+        long start = System.nanoTime();
+        StringBuilder sql = new StringBuilder("SELECT id, first_name, last_name, email, phone_number, status,"
+                + " created_at, updated_at, version FROM users WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status.name());
+        }
+        if (updatedSince != null) {
+            // Users that were never updated count as changed when they were created
+            sql.append(" AND COALESCE(updated_at, created_at) >= ?");
+            args.add(Timestamp.valueOf(updatedSince));
+        }
+        sql.append(" ORDER BY id");
+
+        AtomicLong rows = new AtomicLong();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            // One document per line, without the default space between root values
+            generator.setRootValueSeparator(null);
+            try {
+                jdbcTemplate.query(sql.toString(), rs -> {
+                    if (Instant.now().isAfter(deadline)) {
+                        throw new DeadlineExceededException();
+                    }
+                    try {
+                        generator.writeObject(toResponse(rs));
+                        generator.writeRaw('\n');
+                        long written = rows.incrementAndGet();
+                        if (written == 1 || written % FLUSH_ROWS == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        // The client went away, stop reading the cursor
+                        throw new UncheckedIOException(e);
+                    }
+                }, args.toArray());
+            } catch (DeadlineExceededException e) {
+                log.warn("User stream timed out after {} rows", rows.get());
+                generator.writeObject(Map.of("error", "Stream timed out after " + rows.get() + " users, "
+                        + Duration.ofNanos(System.nanoTime() - start).toSeconds() + " s"));
+                generator.writeRaw('\n');
+                return rows.get();
+            }
+        } catch (UncheckedIOException e) {
+            log.info("User stream aborted after {} rows: {}", rows.get(), e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        log.info("Streamed {} users in {} ms", rows.get(), (System.nanoTime() - start) / 1_000_000);
+        return rows.get();
+    }
+
+    private static UserResponse toResponse(ResultSet rs) throws SQLException {
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return UserResponse.builder()
+                .id(rs.getLong("id"))
+                .firstName(rs.getString("first_name"))
+                .lastName(rs.getString("last_name"))
+                .email(rs.getString("email"))
+                .phoneNumber(rs.getString("phone_number"))
+                .status(UserStatus.valueOf(rs.getString("status")))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .updatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null)
+                .version(rs.getLong("version"))
+                .build();
+    }
+
+    /**
+     * Stops reading the cursor once the deadline passed.
+     */
+    private static final class DeadlineExceededException extends RuntimeException {
+
+        DeadlineExceededException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.ErrorCode;
+import com.example.demo.domain.dto.response.UserImportResponse;
+import com.example.demo.service.UserBatchService;
+import com.example.demo.service.UserImportService;
+import com.example.demo.service.importer.ImportErrorReport;
+import com.example.demo.service.importer.UserImportJob;
+import com.example.demo.service.importer.UserImportPipeline;
+import com.example.demo.service.job.JobRunner;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Runs CSV imports on a bounded pool. Uploads are copied to disk first so the
+ * request returns immediately; the import itself streams the file through
+ * {@link UserImportPipeline}. Finished imports and their error reports are kept
+ * for {@code app.users.import.retention}.
+ */
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    private final UserBatchService userBatchService;
+    private final Validator validator;
+    private final JobRunner<UserImportJob> runner;
+    private final int validationThreads;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final Path directory;
+
+    public UserImportServiceImpl(
+            UserBatchService userBatchService,
+            Validator validator,
+            Environment environment,
+            @Value("${app.users.import.pool-size:1}") int poolSize,
+            @Value("${app.users.import.queue-capacity:5}") int jobQueueCapacity,
+            @Value("${app.users.import.validation-threads:4}") int validationThreads,
+            @Value("${app.users.import.batch-size:500}") int batchSize,
+            @Value("${app.users.import.row-queue-capacity:2000}") int queueCapacity,
+            @Value("${app.users.import.retention:30m}") Duration retention,
+            @Value("${app.users.import.directory:${java.io.tmpdir}/user-imports}") String directory) throws IOException {
+        this.userBatchService = userBatchService;
+        this.validator = validator;
+        this.validationThreads = validationThreads;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.directory = Files.createDirectories(Paths.get(directory));
+        this.runner = new JobRunner<>("user-import", poolSize, jobQueueCapacity, retention, environment);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdown();
+    }
+
+    @Override
+    public BaseResponse<UserImportResponse> submitImport(String fileName, InputStream content) {
+        String id = UUID.randomUUID().toString();
+        Path source = directory.resolve(id + ".csv");
+        try {
+            Files.copy(content, source);
+            UserImportJob job = new UserImportJob(id, fileName, source, directory.resolve(id + "-errors.csv"),
+                    Files.size(source));
+
+            if (!runner.submit(job, this::run)) {
+                JobRunner.deleteQuietly(source);
+                log.warn("Rejected import of {}, queue is full", fileName);
+                return BaseResponse.error(
+                        HttpStatus.TOO_MANY_REQUESTS.value(),
+                        ErrorCode.IMPORT_QUEUE_FULL
+                );
+            }
+
+            log.info("Queued import {} of {} ({} bytes)", id, fileName, job.getTotalBytes());
+            return BaseResponse.ok(toResponse(job));
+        } catch (IOException e) {
+            log.error("Error storing import upload {}: ", fileName, e);
+            JobRunner.deleteQuietly(source);
+            return BaseResponse.error(
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
+                    "Error importing users"
+            );
+        }
+    }
+
+    @Override
+    public BaseResponse<UserImportResponse> getImport(String importId) {
+        UserImportJob job = runner.get(importId);
+        if (job == null) {
+            return importNotFound();
+        }
+        return BaseResponse.ok(toResponse(job));
+    }
+
+    @Override
+    public BaseResponse<ImportErrorReport> getErrorReport(String importId) {
+        UserImportJob job = runner.get(importId);
+        if (job == null) {
+            return importNotFound();
+        }
+        if (!job.getStatus().isFinished()) {
+            return BaseResponse.error(
+                    HttpStatus.CONFLICT.value(),
+                    ErrorCode.IMPORT_NOT_FINISHED
+            );
+        }
+        try {
+            return BaseResponse.ok(new ImportErrorReport("user_import_errors_" + importId + ".csv",
+                    job.getErrorFile(), Files.size(job.getErrorFile())));
+        } catch (IOException e) {
+            return importNotFound();
+        }
+    }
+
+    @Override
+    public BaseResponse<UserImportResponse> cancelImport(String importId) {
+        UserImportJob job = runner.get(importId);
+        if (job == null) {
+            return importNotFound();
+        }
+        if (job.cancel()) {
+            log.info("Cancelled import {}", importId);
+        }
+        return BaseResponse.ok(toResponse(job));
+    }
+
+    private void run(UserImportJob job) {
+        try {
+            // A job cancelled while queued never starts, its upload still has to go
+            if (!job.start()) {
+                return;
+            }
+            new UserImportPipeline(job, validator, userBatchService, validationThreads, batchSize, queueCapacity)
+                    .run();
+            if (job.complete()) {
+                log.info("Import {} completed, {} imported, {} rejected", job.getId(),
+                        job.getImportedRows().get(), job.getRejectedRows().get());
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Import {} rejected: {}", job.getId(), e.getMessage());
+            job.fail(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Import was interrupted");
+        } catch (Exception e) {
+            log.error("Import {} failed: ", job.getId(), e);
+            job.fail("Error importing users");
+        } finally {
+            JobRunner.deleteQuietly(job.getSource());
+        }
+    }
+
+    private UserImportResponse toResponse(UserImportJob job) {
+        return UserImportResponse.builder()
+                .id(job.getId())
+                .fileName(job.getFileName())
+                .status(job.getStatus())
+                .progress(job.getProgress())
+                .parsedRows(job.getParsedRows().get())
+                .importedRows(job.getImportedRows().get())
+                .rejectedRows(job.getRejectedRows().get())
+                .message(job.getMessage())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private <T> BaseResponse<T> importNotFound() {
+        return BaseResponse.error(
+                HttpStatus.NOT_FOUND.value(),
+                ErrorCode.IMPORT_JOB_NOT_FOUND
+        );
+    }
+}
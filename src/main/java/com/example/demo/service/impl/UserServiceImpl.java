@@ -1,81 +1,193 @@
 package com.example.demo.service.impl;
 
 import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.CountMode;
 import com.example.demo.constant.ErrorCode;
+import com.example.demo.constant.UserSortField;
 import com.example.demo.constant.UserStatus;
 import com.example.demo.domain.dto.request.UserRequest;
+import com.example.demo.domain.dto.response.CursorPage;
+import com.example.demo.domain.dto.response.EmailAvailabilityResponse;
+import com.example.demo.domain.dto.response.SlicePage;
 import com.example.demo.domain.dto.response.UserResponse;
 import com.example.demo.domain.entity.user.User;
 import com.example.demo.domain.entity.user.UserRepository;
+import com.example.demo.domain.event.UserChangedEvent;
+import com.example.demo.domain.mapper.UserMapper;
 import com.example.demo.exception.UserException;
 import com.example.demo.service.UserService;
-import com.example.demo.util.Helper;
-import jakarta.transaction.Transactional;
+import com.example.demo.service.cache.EmailBloomFilter;
+import com.example.demo.service.cache.UserCache;
+import com.example.demo.service.cache.UserCountCache;
+import com.example.demo.service.pagination.UserCursor;
+import com.example.demo.service.search.UserSearchIndex;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Reads run in read-only transactions: Hibernate skips the dirty check snapshots and
+ * never flushes, and with a replica configured they are served by it. Writes run in
+ * their own read-write transactions.
+ */
 @Service
-@Transactional
+@Timed("user.service")
+@Transactional(readOnly = true)
 @Slf4j
 public class UserServiceImpl implements UserService {
 
+    private static final String UNIQUE_VIOLATION = "23505";
+
     private final UserRepository userRepository;
-    private final Helper helper;
+    private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserCountCache countCache;
+    private final UserSearchIndex searchIndex;
+    private final UserCache userCache;
+    private final EmailBloomFilter emailFilter;
+    private final TransactionTemplate transactionTemplate;
 
-    public UserServiceImpl(UserRepository userRepository, Helper helper) {
+    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper, ApplicationEventPublisher eventPublisher,
+                           UserCountCache countCache, UserSearchIndex searchIndex, UserCache userCache,
+                           EmailBloomFilter emailFilter, PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
-        this.helper = helper;
+        this.userMapper = userMapper;
+        this.eventPublisher = eventPublisher;
+        this.countCache = countCache;
+        this.searchIndex = searchIndex;
+        this.userCache = userCache;
+        this.emailFilter = emailFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public BaseResponse<UserResponse> createUser(UserRequest request) {
         try {
             log.info("Creating new user");
 
-            if (userRepository.existsByEmail(request.getEmail())) {
-                return BaseResponse.error(
-                        HttpStatus.BAD_REQUEST.value(),
-                        ErrorCode.EMAIL_ALREADY_EXISTS.getMessage()
-                );
-            }
+            // The unique constraint on email rejects duplicates, probing first would cost a
+            // round trip and still race. The own transaction lets a violation roll back cleanly
+            UserResponse response = transactionTemplate.execute(status -> {
+                User user = userMapper.toEntity(request);
+                user.setStatus(request.getStatus() != null ? request.getStatus() : UserStatus.ACTIVE);
+                User savedUser = userRepository.saveAndFlush(user);
+                UserResponse created = userMapper.toResponse(savedUser);
+                eventPublisher.publishEvent(
+                        new UserChangedEvent(UserChangedEvent.Type.CREATED, savedUser.getId(), created));
+                return created;
+            });
 
-            User user = helper.getModelMapper().map(request, User.class);
-            user.setStatus(request.getStatus() != null ? request.getStatus() : UserStatus.ACTIVE);
-            User savedUser = userRepository.save(user);
-
-            return BaseResponse.ok(helper.getModelMapper().map(savedUser, UserResponse.class));
+            return BaseResponse.ok(response);
+        } catch (DataIntegrityViolationException e) {
+            return emailConflict(e, "Error creating user");
         } catch (Exception e) {
             log.error("Error creating user: ", e);
             return BaseResponse.error(
                     HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
                     "Error creating user"
             );
         }
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BaseResponse<UserResponse> upsertUser(UserRequest request) {
+        try {
+            log.info("Upserting user by email");
+
+            User user = userMapper.toEntity(request);
+            user.setStatus(request.getStatus() != null ? request.getStatus() : UserStatus.ACTIVE);
+            UserResponse response;
+            try {
+                response = transactionTemplate.execute(status -> upsert(user));
+            } catch (DataIntegrityViolationException e) {
+                if (!isUniqueViolation(e)) {
+                    throw e;
+                }
+                // Two merges of the same new email can both try to insert, the loser now matches
+                response = transactionTemplate.execute(status -> upsert(user));
+            }
+
+            return BaseResponse.ok(response);
+        } catch (Exception e) {
+            log.error("Error upserting user: ", e);
+            return BaseResponse.error(
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
+                    "Error saving user"
+            );
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public BaseResponse<UserResponse> getUserById(Long id) {
         try {
             log.info("Getting user by id: {}", id);
 
-            Optional<User> userOptional = userRepository.findById(id);
-            if (userOptional.isEmpty()) {
+            // Cache hits must not open a transaction or borrow a connection
+            UserResponse user = userCache.get(id);
+            if (user == null) {
                 return BaseResponse.error(
                         HttpStatus.NOT_FOUND.value(),
-                        ErrorCode.USER_NOT_FOUND.getMessage()
+                        ErrorCode.USER_NOT_FOUND
                 );
             }
 
-            return BaseResponse.ok(helper.getModelMapper().map(userOptional.get(), UserResponse.class));
+            return BaseResponse.ok(user);
         } catch (Exception e) {
             log.error("Error getting user: ", e);
             return BaseResponse.error(
                     HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
+                    "Error getting user"
+            );
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public BaseResponse<Long> getUserVersion(Long id) {
+        try {
+            // Answers conditional requests without loading the user
+            Optional<Long> version = userRepository.findVersionById(id);
+            if (version.isEmpty()) {
+                return BaseResponse.error(
+                        HttpStatus.NOT_FOUND.value(),
+                        ErrorCode.USER_NOT_FOUND
+                );
+            }
+
+            return BaseResponse.ok(version.get());
+        } catch (Exception e) {
+            log.error("Error getting user version: ", e);
+            return BaseResponse.error(
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
                     "Error getting user"
             );
         }
@@ -84,87 +196,298 @@ public class UserServiceImpl implements UserService {
     @Override
     public BaseResponse<Page<UserResponse>> getAllUsers(String searchText, Pageable pageable) {
         try {
-            Page<User> users;
+            Page<UserResponse> users;
             if (searchText == null || searchText.trim().isEmpty()) {
-                users = userRepository.findAll(pageable);
+                users = userRepository.findResponses(pageable);
             } else {
-                users = userRepository.search(searchText.trim(), pageable);
+                users = searchIndexed(searchText.trim(), pageable)
+                        .orElseGet(() -> userRepository.search(searchText.trim(), pageable));
             }
 
             log.info("Found {} users", users.getTotalElements());
 
-            Page<UserResponse> responses = users.map(user ->
-                    helper.getModelMapper().map(user, UserResponse.class)
+            return BaseResponse.ok(users);
+        } catch (Exception e) {
+            log.error("Error getting users: ", e);
+            return BaseResponse.error(
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
+                    "Error getting users"
             );
+        }
+    }
 
-            return BaseResponse.ok(responses);
+    @Override
+    public BaseResponse<SlicePage<UserResponse>> listUsers(String searchText, Pageable pageable, CountMode countMode) {
+        try {
+            String search = searchText == null || searchText.trim().isEmpty() ? null : searchText.trim();
+            Page<UserResponse> indexed = search == null ? null : searchIndexed(search, pageable).orElse(null);
+            Slice<UserResponse> users;
+            if (indexed != null) {
+                users = indexed;
+            } else if (search == null) {
+                users = userRepository.findResponseSlice(pageable);
+            } else {
+                users = userRepository.searchSlice(search, pageable);
+            }
+
+            Long total = null;
+            boolean approximate = false;
+            if (countMode != CountMode.NONE) {
+                if (indexed != null) {
+                    total = indexed.getTotalElements();
+                } else if (!users.hasNext() && (users.hasContent() || pageable.getPageNumber() == 0)) {
+                    // The last page already tells the exact total
+                    total = pageable.getOffset() + users.getNumberOfElements();
+                } else if (countMode == CountMode.EXACT) {
+                    total = userRepository.countForReport(search);
+                } else if (countMode == CountMode.ESTIMATE && search == null) {
+                    total = userRepository.estimateRowCount();
+                    approximate = true;
+                } else {
+                    total = countCache.get(search, userRepository::countForReport);
+                    approximate = true;
+                }
+            }
+
+            log.info("Found {} users, has next: {}, total: {}", users.getNumberOfElements(), users.hasNext(), total);
+
+            return BaseResponse.ok(SlicePage.<UserResponse>builder()
+                    .items(users.getContent())
+                    .page(pageable.getPageNumber())
+                    .size(pageable.getPageSize())
+                    .hasNext(users.hasNext())
+                    .totalElements(total)
+                    .totalApproximate(approximate)
+                    .build());
         } catch (Exception e) {
             log.error("Error getting users: ", e);
             return BaseResponse.error(
                     HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
                     "Error getting users"
             );
         }
     }
 
     @Override
-    public BaseResponse<UserResponse> updateUser(Long id, UserRequest request) {
+    public BaseResponse<CursorPage<UserResponse>> scrollUsers(String searchText, UserSortField sortField,
+                                                              Sort.Direction direction, String cursor, int size) {
+        try {
+            UserCursor after = null;
+            if (cursor != null && !cursor.isBlank()) {
+                after = UserCursor.decode(cursor);
+                if (after.sortField() != sortField || after.direction() != direction) {
+                    return BaseResponse.error(
+                            HttpStatus.BAD_REQUEST.value(),
+                            ErrorCode.INVALID_CURSOR
+                    );
+                }
+            }
+
+            String search = searchText == null || searchText.trim().isEmpty() ? null : searchText.trim();
+            // One extra row tells whether another page exists without a count query
+            List<UserResponse> users = userRepository.findPageAfter(search, sortField, direction.isDescending(),
+                    after != null ? after.typedKey() : null, after != null ? after.id() : null, size + 1);
+
+            boolean hasNext = users.size() > size;
+            List<UserResponse> page = hasNext ? users.subList(0, size) : users;
+            String nextCursor = hasNext
+                    ? UserCursor.after(page.get(page.size() - 1), sortField, direction).encode()
+                    : null;
+
+            log.info("Found {} users after cursor, has next: {}", page.size(), hasNext);
+
+            return BaseResponse.ok(CursorPage.<UserResponse>builder()
+                    .items(page)
+                    .nextCursor(nextCursor)
+                    .hasNext(hasNext)
+                    .build());
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected cursor {}: {}", cursor, e.getMessage());
+            return BaseResponse.error(
+                    HttpStatus.BAD_REQUEST.value(),
+                    ErrorCode.INVALID_CURSOR
+            );
+        } catch (Exception e) {
+            log.error("Error scrolling users: ", e);
+            return BaseResponse.error(
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
+                    "Error getting users"
+            );
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BaseResponse<UserResponse> updateUser(Long id, UserRequest request, Long expectedVersion) {
         try {
             log.info("Updating user with id: {}", id);
 
-            Optional<User> userOptional = userRepository.findById(id);
-            if (userOptional.isEmpty()) {
-                return BaseResponse.error(
-                        HttpStatus.NOT_FOUND.value(),
-                        ErrorCode.USER_NOT_FOUND.getMessage()
-                );
-            }
+            UserResponse response = transactionTemplate.execute(status -> userRepository.findById(id)
+                    .map(user -> {
+                        // A concurrent update after this check still fails on the version column
+                        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+                            throw new OptimisticLockingFailureException(
+                                    "User " + id + " is at version " + user.getVersion());
+                        }
+                        userMapper.updateEntity(request, user);
+                        if (request.getStatus() != null) {
+                            user.setStatus(request.getStatus());
+                        }
+                        User savedUser = userRepository.saveAndFlush(user);
+                        UserResponse updated = userMapper.toResponse(savedUser);
+                        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.UPDATED, id, updated));
+                        return updated;
+                    })
+                    .orElse(null));
 
-            User user = userOptional.get();
-            if (!user.getEmail().equals(request.getEmail()) &&
-                    userRepository.existsByEmail(request.getEmail())) {
+            if (response == null) {
                 return BaseResponse.error(
-                        HttpStatus.BAD_REQUEST.value(),
-                        ErrorCode.EMAIL_ALREADY_EXISTS.getMessage()
+                        HttpStatus.NOT_FOUND.value(),
+                        ErrorCode.USER_NOT_FOUND
                 );
             }
-
-            helper.getModelMapper().map(request, user);
-            if (request.getStatus() != null) {
-                user.setStatus(request.getStatus());
-            }
-
-            User savedUser = userRepository.save(user);
-            return BaseResponse.ok(helper.getModelMapper().map(savedUser, UserResponse.class));
+            return BaseResponse.ok(response);
+        } catch (OptimisticLockingFailureException e) {
+            log.info("Rejected update of user {}: {}", id, e.getMessage());
+            return BaseResponse.error(
+                    HttpStatus.PRECONDITION_FAILED.value(),
+                    ErrorCode.PRECONDITION_FAILED
+            );
+        } catch (DataIntegrityViolationException e) {
+            return emailConflict(e, "Error updating user");
         } catch (Exception e) {
             log.error("Error updating user: ", e);
             return BaseResponse.error(
                     HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
                     "Error updating user"
             );
         }
     }
 
     @Override
-    public BaseResponse<Void> deleteUser(Long id) {
+    @Transactional
+    public BaseResponse<Void> deleteUser(Long id, Long expectedVersion) {
         try {
             log.info("Deleting user with id: {}", id);
 
-            if (!userRepository.existsById(id)) {
+            if (expectedVersion != null) {
+                // Only the version the client has seen is deleted, in one statement
+                if (userRepository.deleteByIdAndVersion(id, expectedVersion) == 0) {
+                    return userRepository.existsById(id)
+                            ? BaseResponse.error(HttpStatus.PRECONDITION_FAILED.value(),
+                                    ErrorCode.PRECONDITION_FAILED)
+                            : BaseResponse.error(HttpStatus.NOT_FOUND.value(),
+                                    ErrorCode.USER_NOT_FOUND);
+                }
+            } else if (!userRepository.existsById(id)) {
                 return BaseResponse.error(
                         HttpStatus.NOT_FOUND.value(),
-                        ErrorCode.USER_NOT_FOUND.getMessage()
+                        ErrorCode.USER_NOT_FOUND
                 );
+            } else {
+                userRepository.deleteById(id);
             }
-
-            userRepository.deleteById(id);
+            eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.DELETED, id, null));
             return BaseResponse.ok(null);
         } catch (Exception e) {
             log.error("Error deleting user: ", e);
             return BaseResponse.error(
                     HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
                     "Error deleting user"
             );
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public BaseResponse<EmailAvailabilityResponse> isEmailAvailable(String email, Long excludeUserId) {
+        try {
+            // Most new emails are answered by the bloom filter without a query
+            boolean taken = emailFilter.mightContain(email) && (excludeUserId == null
+                    ? userRepository.existsByEmail(email)
+                    : userRepository.existsByEmailAndIdNot(email, excludeUserId));
+            return BaseResponse.ok(new EmailAvailabilityResponse(email, !taken));
+        } catch (Exception e) {
+            log.error("Error checking email availability: ", e);
+            return BaseResponse.error(
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    ErrorCode.SYSTEM_ERROR,
+                    "Error checking email"
+            );
+        }
+    }
+
+    private UserResponse upsert(User user) {
+        User savedUser = userRepository.upsertByEmail(user);
+        // Only an update sets updated_at, so a fresh row was inserted by this merge
+        UserChangedEvent.Type type = savedUser.getUpdatedAt() == null
+                ? UserChangedEvent.Type.CREATED
+                : UserChangedEvent.Type.UPDATED;
+        UserResponse response = userMapper.toResponse(savedUser);
+        eventPublisher.publishEvent(new UserChangedEvent(type, savedUser.getId(), response));
+        return response;
+    }
+
+    private <T> BaseResponse<T> emailConflict(DataIntegrityViolationException e, String message) {
+        if (isUniqueViolation(e)) {
+            log.info("Rejected write, email already exists");
+            return BaseResponse.error(
+                    HttpStatus.BAD_REQUEST.value(),
+                    ErrorCode.EMAIL_ALREADY_EXISTS
+            );
+        }
+        log.error("{}: ", message, e);
+        return BaseResponse.error(
+                HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                ErrorCode.SYSTEM_ERROR,
+                message
+        );
+    }
+
+    /**
+     * Ids come from a sequence, so the email is the only unique key a write can violate.
+     */
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Answers an id ordered search from the in-memory index, loading only the users of
+     * the requested page. Empty when the index cannot serve the query or the order.
+     */
+    private Optional<Page<UserResponse>> searchIndexed(String searchText, Pageable pageable) {
+        List<Sort.Order> orders = pageable.getSort().toList();
+        if (orders.size() > 1 || (orders.size() == 1 && !orders.get(0).getProperty().equals("id"))) {
+            return Optional.empty();
+        }
+        Optional<long[]> matches = searchIndex.search(searchText);
+        if (matches.isEmpty()) {
+            return Optional.empty();
+        }
+
+        long[] ids = matches.get();
+        boolean descending = orders.size() == 1 && orders.get(0).isDescending();
+        int from = (int) Math.min(pageable.getOffset(), ids.length);
+        int to = Math.min(from + pageable.getPageSize(), ids.length);
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pageIds.add(descending ? ids[ids.length - 1 - i] : ids[i]);
+        }
+
+        Map<Long, UserResponse> users = userRepository.findResponsesByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(UserResponse::getId, Function.identity()));
+        // A user deleted after the index was read is simply missing from the page
+        List<UserResponse> content = pageIds.stream().map(users::get).filter(Objects::nonNull).toList();
+        return Optional.of(new PageImpl<>(content, pageable, ids.length));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.service.importer;
+
+import java.nio.file.Path;
+
+/**
+ * CSV of the rejected rows of an import, each with the reason it was rejected.
+ */
+public record ImportErrorReport(String fileName, Path path, long size) {
+
+    public static final String CONTENT_TYPE = "text/csv";
+}
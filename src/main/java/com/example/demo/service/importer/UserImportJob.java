@@ -0,0 +1,105 @@
+package com.example.demo.service.importer;
+
+import com.example.demo.constant.ImportJobStatus;
+import com.example.demo.service.job.BackgroundJob;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * State and progress counters of a single CSV import. The counters are updated by the
+ * parser, the validators and the writer while the import runs.
+ */
+@Getter
+public class UserImportJob implements BackgroundJob {
+
+    private final String id;
+    private final String fileName;
+    private final Path source;
+    private final Path errorFile;
+    private final long totalBytes;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final AtomicReference<ImportJobStatus> status = new AtomicReference<>(ImportJobStatus.QUEUED);
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong parsedRows = new AtomicLong();
+    private final AtomicLong importedRows = new AtomicLong();
+    private final AtomicLong rejectedRows = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime completedAt;
+    private volatile String message;
+
+    public UserImportJob(String id, String fileName, Path source, Path errorFile, long totalBytes) {
+        this.id = id;
+        this.fileName = fileName;
+        this.source = source;
+        this.errorFile = errorFile;
+        this.totalBytes = totalBytes;
+    }
+
+    public ImportJobStatus getStatus() {
+        return status.get();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return getStatus().isFinished();
+    }
+
+    @Override
+    public List<Path> getResultFiles() {
+        return List.of(errorFile);
+    }
+
+    public boolean isCancelled() {
+        return status.get() == ImportJobStatus.CANCELLED;
+    }
+
+    public boolean start() {
+        if (!status.compareAndSet(ImportJobStatus.QUEUED, ImportJobStatus.RUNNING)) {
+            return false;
+        }
+        startedAt = LocalDateTime.now();
+        return true;
+    }
+
+    public boolean complete() {
+        return finish(ImportJobStatus.COMPLETED, null);
+    }
+
+    public boolean fail(String message) {
+        return finish(ImportJobStatus.FAILED, message);
+    }
+
+    @Override
+    public boolean cancel() {
+        return finish(ImportJobStatus.CANCELLED, "Cancelled");
+    }
+
+    /**
+     * Share of the file read by the parser. Rows still queued for the writer keep a
+     * running import below 100.
+     */
+    public int getProgress() {
+        if (getStatus() == ImportJobStatus.COMPLETED) {
+            return 100;
+        }
+        return totalBytes <= 0 ? 0 : (int) Math.min(99, bytesRead.get() * 100 / totalBytes);
+    }
+
+    private boolean finish(ImportJobStatus finalStatus, String message) {
+        ImportJobStatus current;
+        do {
+            current = status.get();
+            if (current.isFinished()) {
+                return false;
+            }
+        } while (!status.compareAndSet(current, finalStatus));
+        this.message = message;
+        this.completedAt = LocalDateTime.now();
+        return true;
+    }
+}
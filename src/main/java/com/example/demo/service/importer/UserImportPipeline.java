@@ -0,0 +1,334 @@
+package com.example.demo.service.importer;
+
+import com.example.demo.constant.AppConstant;
+import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.UserStatus;
+import com.example.demo.domain.dto.request.UserRequest;
+import com.example.demo.domain.dto.response.BatchItemResult;
+import com.example.demo.domain.dto.response.BatchResult;
+import com.example.demo.domain.dto.response.UserResponse;
+import com.example.demo.service.UserBatchService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Streams one CSV file into the users table.
+ * <p>
+ * The parser reads one record at a time and hands it to a small validation pool whose
+ * work queue is bounded; when it is full the parser validates the record itself
+ * ({@link ThreadPoolExecutor.CallerRunsPolicy}), so it can never run far ahead. Valid
+ * rows go through a bounded queue to a single writer that inserts them with
+ * {@link UserBatchService#createValidatedUsers}; a full queue blocks the validators and in
+ * turn the parser. Rejected rows are appended to the job's error CSV. Memory therefore
+ * depends on the queue sizes, not on the file size.
+ * <p>
+ * Should the writer stop early, the validators stop waiting for room in the queue and
+ * {@link #run} fails with the writer's error. However {@link #run} ends, the validators
+ * and the writer are stopped.
+ */
+@Slf4j
+public class UserImportPipeline {
+
+    static final String[] COLUMNS = {"first_name", "last_name", "email", "phone_number", "status"};
+    private static final List<String> REQUIRED_COLUMNS = List.of("first_name", "last_name", "email", "status");
+    private static final Row END = new Row(-1, null);
+    private static final long WRITE_LINGER_MS = 50;
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private final UserImportJob job;
+    private final Validator validator;
+    private final UserBatchService userBatchService;
+    private final int validationThreads;
+    private final int batchSize;
+    private final BlockingQueue<Row> rows;
+    private final ReentrantLock errorLock = new ReentrantLock();
+    private CSVPrinter errors;
+    private Future<?> written;
+
+    public UserImportPipeline(UserImportJob job, Validator validator, UserBatchService userBatchService,
+                              int validationThreads, int batchSize, int queueCapacity) {
+        this.job = job;
+        this.validator = validator;
+        this.userBatchService = userBatchService;
+        this.validationThreads = validationThreads;
+        this.batchSize = batchSize;
+        this.rows = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public void run() throws IOException, InterruptedException, ExecutionException {
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setIgnoreHeaderCase(true)
+                .setIgnoreEmptyLines(true)
+                .setTrim(true)
+                .build();
+
+        try (CountingInputStream input = new CountingInputStream(
+                new BufferedInputStream(Files.newInputStream(job.getSource())), job.getBytesRead());
+             CSVParser parser = format.parse(new InputStreamReader(input, StandardCharsets.UTF_8));
+             CSVPrinter errorPrinter = new CSVPrinter(Files.newBufferedWriter(job.getErrorFile()),
+                     CSVFormat.DEFAULT.builder().setHeader(errorColumns()).build())) {
+            this.errors = errorPrinter;
+
+            List<String> missing = REQUIRED_COLUMNS.stream()
+                    .filter(column -> !parser.getHeaderMap().containsKey(column))
+                    .toList();
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("CSV is missing columns: " + String.join(", ", missing));
+            }
+
+            ThreadPoolExecutor validators = new ThreadPoolExecutor(validationThreads, validationThreads,
+                    0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(validationThreads * 4),
+                    new CustomizableThreadFactory("user-import-validate-"), new ThreadPoolExecutor.CallerRunsPolicy());
+            ExecutorService writer = Executors.newSingleThreadExecutor(
+                    new CustomizableThreadFactory("user-import-writer-"));
+            written = writer.submit(this::write);
+            try {
+                for (CSVRecord record : parser) {
+                    if (job.isCancelled() || written.isDone() || Thread.currentThread().isInterrupted()) {
+                        break;
+                    }
+                    job.getParsedRows().incrementAndGet();
+                    validators.execute(() -> validate(record));
+                }
+                // Validators only wait on the queue, and only while the writer is alive
+                validators.shutdown();
+                validators.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                enqueue(END);
+                // Fails with the writer's error when it stopped before the end
+                written.get();
+            } finally {
+                validators.shutdownNow();
+                stop(validators, writer);
+            }
+        }
+    }
+
+    /**
+     * Ends the writer once the validators are gone. The writer is told with the end marker
+     * rather than interrupted, which could cut off a database write.
+     */
+    private void stop(ExecutorService validators, ExecutorService writer) {
+        try {
+            validators.awaitTermination(OFFER_TIMEOUT_MS * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!written.isDone()) {
+                rows.clear();
+                rows.offer(END);
+            }
+            writer.shutdown();
+        }
+    }
+
+    /**
+     * Waits for room in the queue for as long as the writer takes rows.
+     *
+     * @return false when the writer stopped and the row was not queued
+     */
+    private boolean enqueue(Row row) throws InterruptedException {
+        while (!rows.offer(row, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (written.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void validate(CSVRecord record) {
+        try {
+            if (!record.isConsistent()) {
+                reject(record.getRecordNumber(), Arrays.asList(record.values()), "Wrong number of columns");
+                return;
+            }
+
+            String status = value(record, "status");
+            UserRequest request = UserRequest.builder()
+                    .firstName(value(record, "first_name"))
+                    .lastName(value(record, "last_name"))
+                    .email(value(record, "email"))
+                    .phoneNumber(value(record, "phone_number"))
+                    .status(parseStatus(status))
+                    .build();
+
+            Set<ConstraintViolation<UserRequest>> violations = validator.validate(request);
+            if (status != null && request.getStatus() == null) {
+                reject(record.getRecordNumber(), values(request, status), "Status must be one of "
+                        + Arrays.toString(UserStatus.values()));
+            } else if (!violations.isEmpty()) {
+                reject(record.getRecordNumber(), values(request, status), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            } else if (!enqueue(new Row(record.getRecordNumber(), request))) {
+                reject(record.getRecordNumber(), values(request, status), "Import aborted");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(record.getRecordNumber(), Arrays.asList(record.values()), "Import aborted");
+        } catch (RuntimeException e) {
+            log.warn("Import {} could not validate row {}", job.getId(), record.getRecordNumber(), e);
+            reject(record.getRecordNumber(), Arrays.asList(record.values()), "Invalid row");
+        }
+    }
+
+    private void write() {
+        List<Row> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                // Write a partial batch when validation cannot keep the writer busy
+                Row row = batch.isEmpty() ? rows.take() : rows.poll(WRITE_LINGER_MS, TimeUnit.MILLISECONDS);
+                if (row == null) {
+                    flush(batch);
+                } else if (row == END) {
+                    if (!batch.isEmpty()) {
+                        flush(batch);
+                    }
+                    return;
+                } else {
+                    batch.add(row);
+                    if (batch.size() >= batchSize) {
+                        flush(batch);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(List<Row> batch) {
+        // A cancelled import keeps draining the queue so the validators never block
+        if (!job.isCancelled()) {
+            try {
+                BaseResponse<BatchResult<UserResponse>> response = userBatchService.createValidatedUsers(
+                        batch.stream().map(Row::request).toList());
+                if (!AppConstant.SUCCESS.equals(response.getStatus())) {
+                    batch.forEach(row -> reject(row, response.getMessage()));
+                } else {
+                    for (BatchItemResult<UserResponse> item : response.getData().getItems()) {
+                        if (AppConstant.SUCCESS.equals(item.getStatus())) {
+                            job.getImportedRows().incrementAndGet();
+                        } else {
+                            reject(batch.get(item.getIndex()), item.getMessage());
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("Import {} failed to write {} rows: ", job.getId(), batch.size(), e);
+                batch.forEach(row -> reject(row, "Error creating user"));
+            }
+        }
+        batch.clear();
+    }
+
+    private void reject(Row row, String reason) {
+        reject(row.number(), values(row.request(), row.request().getStatus().name()), reason);
+    }
+
+    private void reject(long rowNumber, List<String> values, String reason) {
+        job.getRejectedRows().incrementAndGet();
+        errorLock.lock();
+        try {
+            List<Object> line = new ArrayList<>(values.size() + 2);
+            line.add(rowNumber);
+            line.addAll(values);
+            line.add(reason);
+            errors.printRecord(line);
+        } catch (IOException e) {
+            log.warn("Import {} could not record rejected row {}", job.getId(), rowNumber, e);
+        } finally {
+            errorLock.unlock();
+        }
+    }
+
+    private static List<String> values(UserRequest request, String status) {
+        return Arrays.asList(request.getFirstName(), request.getLastName(), request.getEmail(),
+                request.getPhoneNumber(), status);
+    }
+
+    private static String value(CSVRecord record, String column) {
+        if (!record.isMapped(column)) {
+            return null;
+        }
+        String value = record.get(column);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static UserStatus parseStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        try {
+            return UserStatus.valueOf(status.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String[] errorColumns() {
+        String[] columns = new String[COLUMNS.length + 2];
+        columns[0] = "row";
+        System.arraycopy(COLUMNS, 0, columns, 1, COLUMNS.length);
+        columns[columns.length - 1] = "error";
+        return columns;
+    }
+
+    private record Row(long number, UserRequest request) {
+    }
+
+    /**
+     * Publishes the bytes consumed by the parser so progress follows the file position.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong count;
+
+        CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count.incrementAndGet();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count.addAndGet(skipped);
+            return skipped;
+        }
+    }
+}
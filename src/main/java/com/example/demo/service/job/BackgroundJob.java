@@ -0,0 +1,33 @@
+package com.example.demo.service.job;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A job run and kept by {@link JobRunner}.
+ */
+public interface BackgroundJob {
+
+    String getId();
+
+    boolean isFinished();
+
+    /**
+     * Set together with the final status, so a job finishing right now may have none yet.
+     */
+    LocalDateTime getCompletedAt();
+
+    boolean cancel();
+
+    /**
+     * Files the job leaves for its clients, deleted once the job expires.
+     */
+    List<Path> getResultFiles();
+
+    /**
+     * Called by the housekeeping of unfinished jobs, a job with a deadline expires here.
+     */
+    default void checkDeadline() {
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.service.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs background jobs on a bounded pool and keeps them, with their result files,
+ * for {@code retention} after they finished.
+ * <p>
+ * The pool size caps concurrent jobs and the queue capacity the jobs waiting for
+ * them; a job beyond that is rejected rather than queued without limit. A
+ * housekeeper expires jobs past their deadline and removes old finished ones.
+ */
+@Slf4j
+public class JobRunner<J extends BackgroundJob> {
+
+    private static final long HOUSEKEEPING_SECONDS = 30;
+
+    private final String name;
+    private final Duration retention;
+    private final ThreadPoolTaskExecutor executor;
+    private final ScheduledExecutorService housekeeper;
+    private final Map<String, J> jobs = new ConcurrentHashMap<>();
+
+    public JobRunner(String name, int poolSize, int queueCapacity, Duration retention, Environment environment) {
+        this.name = name;
+        this.retention = retention;
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(name + "-");
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // The pool size still caps concurrent jobs, virtual threads only stop a job
+            // blocked on the database from holding a platform thread
+            executor.setThreadFactory(new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory());
+        }
+        executor.initialize();
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeeping, HOUSEKEEPING_SECONDS, HOUSEKEEPING_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Registers the job and queues {@code task} for it. Returns false, with the job
+     * dropped again, when the queue is full.
+     */
+    public boolean submit(J job, Consumer<J> task) {
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> task.accept(job));
+            return true;
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            return false;
+        }
+    }
+
+    public J get(String id) {
+        return jobs.get(id);
+    }
+
+    public void shutdown() {
+        housekeeper.shutdownNow();
+        jobs.values().forEach(BackgroundJob::cancel);
+        executor.shutdown();
+    }
+
+    public static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete job file {}", file, e);
+        }
+    }
+
+    private void housekeeping() {
+        // An exception escaping here would cancel the schedule for good
+        try {
+            LocalDateTime expiry = LocalDateTime.now().minus(retention);
+            jobs.values().forEach(job -> {
+                if (!job.isFinished()) {
+                    job.checkDeadline();
+                }
+                LocalDateTime completedAt = job.getCompletedAt();
+                if (job.isFinished() && completedAt != null && completedAt.isBefore(expiry)) {
+                    jobs.remove(job.getId());
+                    job.getResultFiles().forEach(JobRunner::deleteQuietly);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Housekeeping of {} jobs failed: ", name, e);
+        }
+    }
+}
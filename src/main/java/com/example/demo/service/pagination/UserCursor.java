@@ -0,0 +1,57 @@
+package com.example.demo.service.pagination;
+
+import com.example.demo.constant.UserSortField;
+import com.example.demo.domain.dto.response.UserResponse;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page: the sort key and the id that breaks ties.
+ * Clients only see it as an opaque base64 string.
+ */
+public record UserCursor(UserSortField sortField, Sort.Direction direction, String key, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static UserCursor after(UserResponse user, UserSortField sortField, Sort.Direction direction) {
+        Object key = switch (sortField) {
+            case ID -> user.getId();
+            case EMAIL -> user.getEmail();
+            case CREATED_AT -> user.getCreatedAt();
+            case LAST_NAME -> user.getLastName();
+        };
+        return new UserCursor(sortField, direction, String.valueOf(key), user.getId());
+    }
+
+    public static UserCursor decode(String value) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            UserCursor cursor = new UserCursor(UserSortField.valueOf(parts[0]), Sort.Direction.valueOf(parts[1]),
+                    parts[3], Long.parseLong(parts[2]));
+            cursor.typedKey();
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, sortField.name(), direction.name(), String.valueOf(id), key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Object typedKey() {
+        return switch (sortField) {
+            case ID -> Long.parseLong(key);
+            case CREATED_AT -> LocalDateTime.parse(key);
+            case EMAIL, LAST_NAME -> key;
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.service.report;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A rendered report held by {@link ReportCache}, either in memory or spilled to disk.
+ * <p>
+ * A spilled report comes with its file already opened by the cache, which may delete
+ * the file at any time after. Its content is read once, with {@link #open} or
+ * {@link #writeTo}; {@link #close} releases it when it is not read at all.
+ */
+public record CachedReport(String version, byte[] content, InputStream fileContent, long size) implements Closeable {
+
+    public InputStream open() {
+        return content != null ? new ByteArrayInputStream(content) : fileContent;
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        if (content != null) {
+            outputStream.write(content);
+        } else {
+            try (InputStream inputStream = fileContent) {
+                inputStream.transferTo(outputStream);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fileContent != null) {
+            fileContent.close();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.service.report;
+
+import com.example.demo.domain.event.UserChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rendered reports keyed by their data version.
+ * <p>
+ * Small reports are kept in memory up to {@code app.report.cache.max-memory}, least
+ * recently used ones spill to disk. Reports above {@code max-entry-memory} go to disk
+ * directly. Any user write clears the cache once its transaction commits.
+ * <p>
+ * Spilled reports are handed out with their file opened under the lock, so evicting or
+ * clearing may delete the file while it is still being read. Files left behind by an
+ * earlier run are deleted at startup.
+ */
+@Component
+@Slf4j
+public class ReportCache {
+
+    private final long maxMemoryBytes;
+    private final long maxEntryMemoryBytes;
+    private final int maxDiskEntries;
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Path> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+
+    public ReportCache(
+            @Value("${app.report.cache.max-memory:32MB}") DataSize maxMemory,
+            @Value("${app.report.cache.max-entry-memory:4MB}") DataSize maxEntryMemory,
+            @Value("${app.report.cache.max-disk-entries:50}") int maxDiskEntries,
+            @Value("${app.report.cache.directory:${java.io.tmpdir}/user-report-cache}") String directory)
+            throws IOException {
+        this.maxMemoryBytes = maxMemory.toBytes();
+        this.maxEntryMemoryBytes = maxEntryMemory.toBytes();
+        this.maxDiskEntries = maxDiskEntries;
+        this.directory = Files.createDirectories(Paths.get(directory));
+        deleteLeftovers();
+    }
+
+    public Optional<CachedReport> get(String version) {
+        lock.lock();
+        try {
+            byte[] content = memory.get(version);
+            if (content != null) {
+                return Optional.of(new CachedReport(version, content, null, content.length));
+            }
+            Path file = disk.get(version);
+            if (file != null) {
+                return Optional.of(open(version, file));
+            }
+            return Optional.empty();
+        } catch (NoSuchFileException e) {
+            disk.remove(version);
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Could not read cached report {}", version, e);
+            return Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores a freshly rendered report. The cache takes ownership of {@code rendered},
+     * it is either moved into the cache directory or deleted after being read.
+     */
+    public CachedReport put(String version, Path rendered) throws IOException {
+        long size = Files.size(rendered);
+        if (size <= maxEntryMemoryBytes) {
+            byte[] content = Files.readAllBytes(rendered);
+            Files.deleteIfExists(rendered);
+            lock.lock();
+            try {
+                byte[] previous = memory.put(version, content);
+                memoryBytes += content.length - (previous != null ? previous.length : 0);
+                spillToDisk();
+            } finally {
+                lock.unlock();
+            }
+            return new CachedReport(version, content, null, size);
+        }
+
+        Path file = directory.resolve(version + ".report");
+        Files.move(rendered, file, StandardCopyOption.REPLACE_EXISTING);
+        lock.lock();
+        try {
+            disk.put(version, file);
+            CachedReport report = open(version, file);
+            evictFromDisk();
+            return report;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            memory.clear();
+            memoryBytes = 0;
+            disk.values().forEach(this::deleteQuietly);
+            disk.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidateAll();
+    }
+
+    private static CachedReport open(String version, Path file) throws IOException {
+        InputStream content = Files.newInputStream(file);
+        try {
+            return new CachedReport(version, null, content, Files.size(file));
+        } catch (IOException e) {
+            content.close();
+            throw e;
+        }
+    }
+
+    private void deleteLeftovers() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.report")) {
+            files.forEach(this::deleteQuietly);
+        }
+    }
+
+    private void spillToDisk() {
+        Iterator<Map.Entry<String, byte[]>> entries = memory.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && entries.hasNext()) {
+            Map.Entry<String, byte[]> eldest = entries.next();
+            entries.remove();
+            memoryBytes -= eldest.getValue().length;
+            Path file = directory.resolve(eldest.getKey() + ".report");
+            try {
+                Files.write(file, eldest.getValue());
+                disk.put(eldest.getKey(), file);
+            } catch (IOException e) {
+                log.warn("Could not spill report {} to disk", eldest.getKey(), e);
+            }
+        }
+        evictFromDisk();
+    }
+
+    private void evictFromDisk() {
+        Iterator<Map.Entry<String, Path>> entries = disk.entrySet().iterator();
+        while (disk.size() > maxDiskEntries && entries.hasNext()) {
+            deleteQuietly(entries.next().getValue());
+            entries.remove();
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete cached report {}", file, e);
+        }
+    }
+}
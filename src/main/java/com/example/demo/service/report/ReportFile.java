@@ -0,0 +1,6 @@
+package com.example.demo.service.report;
+
+import java.nio.file.Path;
+
+public record ReportFile(String fileName, String contentType, Path path, long size, String version) {
+}
@@ -0,0 +1,141 @@
+package com.example.demo.service.report;
+
+import com.example.demo.constant.ReportFormat;
+import com.example.demo.constant.ReportJobStatus;
+import com.example.demo.service.job.BackgroundJob;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * State of a single asynchronous report. Status changes are compare-and-set so a
+ * cancel or timeout racing with completion leaves exactly one final status.
+ */
+@Getter
+public class ReportJob implements BackgroundJob {
+
+    private final String id;
+    private final ReportFormat format;
+    private final String searchText;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final Instant deadline;
+    private final AtomicReference<ReportJobStatus> status = new AtomicReference<>(ReportJobStatus.QUEUED);
+    private final AtomicLong processedRows = new AtomicLong();
+    private volatile long totalRows;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime completedAt;
+    private volatile Path file;
+    private volatile Long fileSize;
+    private volatile String version;
+    private volatile String message;
+
+    public ReportJob(String id, ReportFormat format, String searchText, Instant deadline) {
+        this.id = id;
+        this.format = format;
+        this.searchText = searchText;
+        this.deadline = deadline;
+    }
+
+    public ReportJobStatus getStatus() {
+        return status.get();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return getStatus().isFinished();
+    }
+
+    @Override
+    public List<Path> getResultFiles() {
+        Path result = file;
+        return result != null ? List.of(result) : List.of();
+    }
+
+    public long getProcessedRows() {
+        return processedRows.get();
+    }
+
+    public String getFileName() {
+        return "users_report_" + id + "." + format.getExtension();
+    }
+
+    public boolean start() {
+        if (!status.compareAndSet(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING)) {
+            return false;
+        }
+        startedAt = LocalDateTime.now();
+        return true;
+    }
+
+    public void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    /**
+     * Called by the report writer for every row, aborts the fill once the job was
+     * cancelled or ran past its deadline.
+     */
+    public void progress(long rows) {
+        processedRows.set(rows);
+        if (Instant.now().isAfter(deadline)) {
+            expire();
+        }
+        if (status.get() != ReportJobStatus.RUNNING) {
+            throw new ReportJobCancelledException(id);
+        }
+    }
+
+    public boolean complete(Path file, long fileSize, String version) {
+        this.file = file;
+        this.fileSize = fileSize;
+        this.version = version;
+        return finish(ReportJobStatus.COMPLETED, null);
+    }
+
+    public boolean fail(String message) {
+        return finish(ReportJobStatus.FAILED, message);
+    }
+
+    @Override
+    public boolean cancel() {
+        return finish(ReportJobStatus.CANCELLED, "Cancelled");
+    }
+
+    @Override
+    public void checkDeadline() {
+        // A job still queued has no writer checking the deadline for it
+        if (Instant.now().isAfter(deadline)) {
+            expire();
+        }
+    }
+
+    public boolean expire() {
+        return finish(ReportJobStatus.TIMED_OUT, "Report generation timed out");
+    }
+
+    public int getProgress() {
+        if (getStatus() == ReportJobStatus.COMPLETED) {
+            return 100;
+        }
+        long total = totalRows;
+        return total <= 0 ? 0 : (int) Math.min(99, processedRows.get() * 100 / total);
+    }
+
+    private boolean finish(ReportJobStatus finalStatus, String message) {
+        ReportJobStatus current;
+        do {
+            current = status.get();
+            if (current.isFinished()) {
+                return false;
+            }
+        } while (!status.compareAndSet(current, finalStatus));
+        this.message = message;
+        this.completedAt = LocalDateTime.now();
+        return true;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.service.report;
+
+public class ReportJobCancelledException extends RuntimeException {
+    public ReportJobCancelledException(String jobId) {
+        super("Report job " + jobId + " is no longer running");
+    }
+}
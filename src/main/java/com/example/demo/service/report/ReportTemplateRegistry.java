@@ -0,0 +1,119 @@
+package com.example.demo.service.report;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds compiled Jasper templates so exports only pay for fill and export.
+ * <p>
+ * Templates are loaded from the {@code .jasper} files produced by the build. When a
+ * precompiled file is missing the {@code .jrxml} source is compiled on first use and
+ * cached. With {@code app.report.hot-reload=true} the sources under
+ * {@code app.report.template-dir} are watched by modification time and recompiled
+ * when they change, which keeps template editing quick during development.
+ */
+@Component
+@Slf4j
+public class ReportTemplateRegistry {
+
+    public static final String USER_REPORT = "user_report";
+
+    private static final List<String> TEMPLATES = List.of(USER_REPORT);
+
+    private final ResourceLoader resourceLoader;
+    private final MeterRegistry meterRegistry;
+    private final boolean hotReload;
+    private final Path templateDir;
+    private final Map<String, CachedTemplate> templates = new ConcurrentHashMap<>();
+
+    public ReportTemplateRegistry(
+            ResourceLoader resourceLoader,
+            MeterRegistry meterRegistry,
+            @Value("${app.report.hot-reload:false}") boolean hotReload,
+            @Value("${app.report.template-dir:src/main/resources/reports}") String templateDir) {
+        this.resourceLoader = resourceLoader;
+        this.meterRegistry = meterRegistry;
+        this.hotReload = hotReload;
+        this.templateDir = Paths.get(templateDir);
+        TEMPLATES.forEach(this::preload);
+    }
+
+    public JasperReport get(String name) {
+        if (hotReload) {
+            reloadIfModified(name);
+        }
+        return templates.computeIfAbsent(name, this::compileFromClasspath).report();
+    }
+
+    private void preload(String name) {
+        Resource compiled = resourceLoader.getResource("classpath:reports/" + name + ".jasper");
+        if (!compiled.exists()) {
+            log.info("No precompiled template for {}, it will be compiled on first use", name);
+            return;
+        }
+        try (InputStream in = compiled.getInputStream()) {
+            templates.put(name, new CachedTemplate((JasperReport) JRLoader.loadObject(in), 0L));
+            log.info("Loaded precompiled report template {}", name);
+        } catch (IOException | JRException e) {
+            log.warn("Could not load precompiled template {}, falling back to compilation", name, e);
+        }
+    }
+
+    private CachedTemplate compileFromClasspath(String name) {
+        Resource source = resourceLoader.getResource("classpath:reports/" + name + ".jrxml");
+        try (InputStream in = source.getInputStream()) {
+            log.info("Compiling report template {}", name);
+            return new CachedTemplate(compile(name, in), 0L);
+        } catch (IOException | JRException e) {
+            throw new IllegalStateException("Unable to compile report template " + name, e);
+        }
+    }
+
+    private void reloadIfModified(String name) {
+        Path source = templateDir.resolve(name + ".jrxml");
+        if (!Files.isRegularFile(source)) {
+            return;
+        }
+        try {
+            long lastModified = Files.getLastModifiedTime(source).toMillis();
+            CachedTemplate current = templates.get(name);
+            if (current != null && current.lastModified() >= lastModified) {
+                return;
+            }
+            try (InputStream in = Files.newInputStream(source)) {
+                log.info("Recompiling modified report template {}", source);
+                templates.put(name, new CachedTemplate(compile(name, in), lastModified));
+            }
+        } catch (IOException | JRException e) {
+            log.error("Failed to hot reload template {}, keeping the previous version", source, e);
+        }
+    }
+
+    private JasperReport compile(String name, InputStream source) throws JRException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        JasperReport report = JasperCompileManager.compileReport(source);
+        sample.stop(Timer.builder("report.compile").tag("template", name).register(meterRegistry));
+        return report;
+    }
+
+    private record CachedTemplate(JasperReport report, long lastModified) {
+    }
+}
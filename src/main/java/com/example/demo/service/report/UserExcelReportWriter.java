@@ -0,0 +1,109 @@
+package com.example.demo.service.report;
+
+import com.example.demo.domain.dto.UserReportDTO;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Writes the user Excel report with a streaming workbook.
+ * <p>
+ * Only {@link #ROW_WINDOW} rows are kept in memory, older rows are flushed to a
+ * compressed temp file. Column widths are derived from the longest value seen per
+ * column instead of {@code autoSizeColumn}, which would have to rescan every row.
+ */
+@Component
+public class UserExcelReportWriter {
+
+    private static final int ROW_WINDOW = 100;
+
+    private static final String[] HEADERS = {"ID", "First Name", "Last Name", "Email", "Phone Number", "Status"};
+    private static final int MIN_COLUMN_WIDTH = 3000;
+    private static final int MAX_COLUMN_WIDTH = 255 * 256;
+
+    public void write(Iterator<UserReportDTO> users, OutputStream outputStream) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Users");
+            CellStyle headerStyle = createHeaderStyle(workbook);
+            CellStyle dataStyle = createDataStyle(workbook);
+            int[] maxLengths = new int[HEADERS.length];
+
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+                maxLengths[i] = HEADERS[i].length();
+            }
+
+            int rowNum = 1;
+            while (users.hasNext()) {
+                UserReportDTO user = users.next();
+                Row row = sheet.createRow(rowNum++);
+
+                Cell idCell = row.createCell(0);
+                idCell.setCellValue(user.getId());
+                idCell.setCellStyle(dataStyle);
+                track(maxLengths, 0, String.valueOf(user.getId()));
+
+                writeText(row, 1, user.getFirstName(), dataStyle, maxLengths);
+                writeText(row, 2, user.getLastName(), dataStyle, maxLengths);
+                writeText(row, 3, user.getEmail(), dataStyle, maxLengths);
+                writeText(row, 4, user.getPhoneNumber(), dataStyle, maxLengths);
+                writeText(row, 5, user.getStatus().name(), dataStyle, maxLengths);
+            }
+
+            for (int i = 0; i < HEADERS.length; i++) {
+                int width = (maxLengths[i] + 2) * 256;
+                sheet.setColumnWidth(i, Math.min(MAX_COLUMN_WIDTH, Math.max(MIN_COLUMN_WIDTH, width)));
+            }
+
+            workbook.write(outputStream);
+        } finally {
+            workbook.close();
+            workbook.dispose();
+        }
+    }
+
+    private void writeText(Row row, int column, String value, CellStyle style, int[] maxLengths) {
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        cell.setCellStyle(style);
+        track(maxLengths, column, value);
+    }
+
+    private void track(int[] maxLengths, int column, String value) {
+        if (value != null && value.length() > maxLengths[column]) {
+            maxLengths[column] = value.length();
+        }
+    }
+
+    private CellStyle createHeaderStyle(Workbook workbook) {
+        CellStyle headerStyle = workbook.createCellStyle();
+        headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        headerStyle.setBorderBottom(BorderStyle.THIN);
+        headerStyle.setBorderTop(BorderStyle.THIN);
+        headerStyle.setBorderLeft(BorderStyle.THIN);
+        headerStyle.setBorderRight(BorderStyle.THIN);
+        headerStyle.setAlignment(HorizontalAlignment.CENTER);
+        return headerStyle;
+    }
+
+    private CellStyle createDataStyle(Workbook workbook) {
+        CellStyle dataStyle = workbook.createCellStyle();
+        dataStyle.setBorderBottom(BorderStyle.THIN);
+        dataStyle.setBorderTop(BorderStyle.THIN);
+        dataStyle.setBorderLeft(BorderStyle.THIN);
+        dataStyle.setBorderRight(BorderStyle.THIN);
+        dataStyle.setAlignment(HorizontalAlignment.LEFT);
+        return dataStyle;
+    }
+}
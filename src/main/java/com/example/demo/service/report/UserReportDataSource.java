@@ -0,0 +1,49 @@
+package com.example.demo.service.report;
+
+import com.example.demo.domain.dto.UserReportDTO;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+import java.util.Iterator;
+
+/**
+ * Jasper data source that pulls report rows one at a time from a cursor.
+ * <p>
+ * Unlike {@code JRBeanCollectionDataSource} it never holds the whole result, so the
+ * fill only keeps the rows of the page being laid out.
+ */
+public class UserReportDataSource implements JRDataSource {
+
+    private final Iterator<UserReportDTO> rows;
+    private UserReportDTO current;
+
+    public UserReportDataSource(Iterator<UserReportDTO> rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public boolean next() {
+        if (!rows.hasNext()) {
+            current = null;
+            return false;
+        }
+        current = rows.next();
+        return true;
+    }
+
+    @Override
+    public Object getFieldValue(JRField field) throws JRException {
+        return switch (field.getName()) {
+            case "id" -> current.getId();
+            case "firstName" -> current.getFirstName();
+            case "lastName" -> current.getLastName();
+            case "email" -> current.getEmail();
+            case "phoneNumber" -> current.getPhoneNumber();
+            case "status" -> current.getStatus();
+            case "createdAt" -> current.getCreatedAt();
+            case "updatedAt" -> current.getUpdatedAt();
+            default -> throw new JRException("Unknown report field: " + field.getName());
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate free list of user ids backed by a primitive array.
+ * Ids are mostly added in increasing order, which is an append.
+ */
+final class LongPostings {
+
+    private long[] ids = new long[4];
+    private int size;
+
+    void add(long id) {
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Keeps the ids of {@code candidates} that are also in this list, both sorted.
+     */
+    long[] retainAll(long[] candidates) {
+        long[] result = new long[Math.min(candidates.length, size)];
+        int count = 0;
+        int from = 0;
+        for (long candidate : candidates) {
+            int index = Arrays.binarySearch(ids, from, size, candidate);
+            if (index >= 0) {
+                result[count++] = candidate;
+                from = index + 1;
+            } else {
+                from = -index - 1;
+            }
+            if (from >= size) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.demo.service.search;
+
+import com.example.demo.domain.dto.response.UserResponse;
+import com.example.demo.domain.event.UserChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over first name, last name and email.
+ * <p>
+ * Each lowercased trigram maps to the sorted ids of the users containing it. A query
+ * intersects the postings of its trigrams, smallest first, and confirms every
+ * candidate against the indexed text, so the result is exactly what the
+ * {@code LIKE '%x%'} search of {@code UserRepository} returns. Queries shorter than
+ * a trigram, or arriving before the index is built, are left to the database.
+ * <p>
+ * The index is loaded when the application is ready and then follows committed
+ * user writes through {@link UserChangedEvent}.
+ */
+@Component
+@Slf4j
+public class UserSearchIndex {
+
+    static final int GRAM = 3;
+    private static final char FIELD_SEPARATOR = '\u0000';
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, LongPostings> postings = new HashMap<>();
+    private final Map<Long, String> documents = new HashMap<>();
+    private volatile boolean ready;
+
+    public UserSearchIndex(
+            DataSource dataSource,
+            @Value("${app.users.search-index.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Ids of all users matching {@code query}, ascending, or empty when the index
+     * cannot answer and the caller has to query the database.
+     */
+    public Optional<long[]> search(String query) {
+        if (!ready || query == null) {
+            return Optional.empty();
+        }
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        // LIKE wildcards in the query are only understood by the database
+        if (needle.length() < GRAM || needle.indexOf('%') >= 0 || needle.indexOf('_') >= 0) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<LongPostings> lists = new ArrayList<>();
+            for (long gram : grams(needle)) {
+                LongPostings list = postings.get(gram);
+                if (list == null) {
+                    return Optional.of(new long[0]);
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(LongPostings::size));
+
+            long[] candidates = lists.get(0).toArray();
+            for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+                candidates = lists.get(i).retainAll(candidates);
+            }
+
+            // Trigrams can match out of order, only a real substring counts
+            int count = 0;
+            for (long id : candidates) {
+                if (documents.get(id).contains(needle)) {
+                    candidates[count++] = id;
+                }
+            }
+            return Optional.of(Arrays.copyOf(candidates, count));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            log.info("User search index disabled");
+            return;
+        }
+        long start = System.nanoTime();
+        // Writes committed during the load wait for the lock and are applied afterwards
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            jdbcTemplate.query("SELECT id, first_name, last_name, email FROM users",
+                    rs -> {
+                        put(rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name"),
+                                rs.getString("email"));
+                    });
+            ready = true;
+        } catch (RuntimeException e) {
+            log.error("Could not build user search index, searches use the database", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} users with {} trigrams in {} ms", documents.size(), postings.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.type() == UserChangedEvent.Type.DELETED) {
+                remove(event.userId());
+            } else {
+                UserResponse user = event.user();
+                put(event.userId(), user.getFirstName(), user.getLastName(), user.getEmail());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(long id, String firstName, String lastName, String email) {
+        String document = (firstName + FIELD_SEPARATOR + lastName + FIELD_SEPARATOR + email).toLowerCase(Locale.ROOT);
+        String previous = documents.put(id, document);
+        Set<Long> grams = grams(document);
+        if (previous != null) {
+            for (long gram : grams(previous)) {
+                if (!grams.contains(gram)) {
+                    removePosting(gram, id);
+                }
+            }
+        }
+        for (long gram : grams) {
+            postings.computeIfAbsent(gram, key -> new LongPostings()).add(id);
+        }
+    }
+
+    private void remove(long id) {
+        String previous = documents.remove(id);
+        if (previous != null) {
+            for (long gram : grams(previous)) {
+                removePosting(gram, id);
+            }
+        }
+    }
+
+    private void removePosting(long gram, long id) {
+        LongPostings list = postings.get(gram);
+        if (list != null) {
+            list.remove(id);
+            if (list.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Trigrams packed into a long, 16 bits per char. Grams spanning the field separator
+     * can never come from a query, so a match always lies within one field.
+     */
+    private static Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+}
@@ -2,10 +2,22 @@ package com.example.demo.ui.views;
 
 import com.example.demo.constant.AppConstant;
 import com.example.demo.constant.BaseResponse;
+import com.example.demo.constant.CountMode;
+import com.example.demo.constant.ErrorCode;
+import com.example.demo.constant.ReportFormat;
+import com.example.demo.domain.dto.request.ReportJobRequest;
+import com.example.demo.domain.dto.response.EmailAvailabilityResponse;
+import com.example.demo.domain.dto.response.ReportJobResponse;
+import com.example.demo.domain.dto.response.SlicePage;
+import com.example.demo.domain.dto.response.UserImportResponse;
 import com.example.demo.domain.dto.response.UserResponse;
-import com.example.demo.service.ReportService;
+import com.example.demo.service.ReportJobService;
+import com.example.demo.service.UserImportService;
 import com.example.demo.service.UserService;
+import com.example.demo.service.importer.ImportErrorReport;
+import com.example.demo.service.report.ReportFile;
 import com.example.demo.ui.views.components.UserForm;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.html.*;
@@ -14,14 +26,21 @@ import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
+import com.vaadin.flow.component.upload.Upload;
+import com.vaadin.flow.component.upload.receivers.FileBuffer;
+import com.vaadin.flow.data.provider.Query;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.shared.Registration;
+import com.vaadin.flow.spring.data.VaadinSpringDataHelpers;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.dialog.Dialog;
@@ -32,8 +51,11 @@ import java.io.ByteArrayInputStream;
 
 import java.awt.*;
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
 
 @Route(value = "users", layout = MainView.class)
 @PageTitle("User Management")
@@ -43,13 +65,16 @@ public class UserListView extends VerticalLayout {
     private final UserForm form;
     private final UserService userService;
     private final TextField filterField;
-    private final ReportService reportService;
+    private final ReportJobService reportJobService;
+    private final UserImportService userImportService;
 
-    public UserListView(UserService userService, ReportService reportService) {
+    public UserListView(UserService userService, ReportJobService reportJobService,
+                        UserImportService userImportService) {
         this.userService = userService;
-        this.reportService = reportService;
+        this.reportJobService = reportJobService;
+        this.userImportService = userImportService;
         this.grid = new Grid<>(UserResponse.class);
-        this.form = new UserForm();
+        this.form = new UserForm(this::isEmailAvailable);
         this.filterField = new TextField();
 
         addClassName("list-view");
@@ -65,7 +90,6 @@ public class UserListView extends VerticalLayout {
 
         add(content);
 
-        refreshGrid();
         closeEditor();
     }
 
@@ -77,23 +101,28 @@ public class UserListView extends VerticalLayout {
         // Konfigurasi kolom
         grid.addColumn(UserResponse::getId)
                 .setHeader("ID")
+                .setSortProperty("id")
                 .setWidth("100px")
                 .setFlexGrow(0);
 
         grid.addColumn(UserResponse::getFirstName)
                 .setHeader("First Name")
+                .setSortProperty("firstName")
                 .setFlexGrow(1);
 
         grid.addColumn(UserResponse::getLastName)
                 .setHeader("Last Name")
+                .setSortProperty("lastName")
                 .setFlexGrow(1);
 
         grid.addColumn(UserResponse::getEmail)
                 .setHeader("Email")
+                .setSortProperty("email")
                 .setFlexGrow(1);
 
         grid.addColumn(UserResponse::getPhoneNumber)
                 .setHeader("Phone")
+                .setSortProperty("phoneNumber")
                 .setFlexGrow(1);
 
         // Status column dengan badge
@@ -108,18 +137,20 @@ public class UserListView extends VerticalLayout {
             badge.getElement().getThemeList().add("badge");
             badge.getElement().getThemeList().add(theme);
             return badge;
-        }).setHeader("Status").setFlexGrow(0);
+        }).setHeader("Status").setSortProperty("status").setFlexGrow(0);
 
         // Date formatter
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
         grid.addColumn(user -> user.getCreatedAt().format(formatter))
                 .setHeader("Created At")
+                .setSortProperty("createdAt")
                 .setFlexGrow(1);
 
         grid.addColumn(user ->
                         user.getUpdatedAt() != null ? user.getUpdatedAt().format(formatter) : "-")
                 .setHeader("Updated At")
+                .setSortProperty("updatedAt")
                 .setFlexGrow(1);
 
         // Action column
@@ -143,8 +174,10 @@ public class UserListView extends VerticalLayout {
         // Make columns resizable
         grid.getColumns().forEach(col -> col.setResizable(true));
 
-        // Add sorting
-        grid.getColumns().forEach(col -> col.setSortable(true));
+        // Sorting is pushed down to the database through the columns' sort properties. The
+        // size is found while scrolling, as a stale count would hide rows or show blank ones;
+        // the cached count only sizes the scrollbar until then
+        grid.setItems(this::fetchUsers).setItemCountEstimate(estimateUserCount());
 
         // Add selection listener
         grid.asSingleSelect().addValueChangeListener(event -> {
@@ -176,7 +209,7 @@ public class UserListView extends VerticalLayout {
 
         Button refreshButton = new Button(new Icon(VaadinIcon.REFRESH));
         refreshButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
-        refreshButton.addClickListener(click -> loadUsers());
+        refreshButton.addClickListener(click -> refreshGrid());
 
         // Export buttons
         Button pdfButton = new Button("Export PDF");
@@ -189,10 +222,15 @@ public class UserListView extends VerticalLayout {
         excelButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
         excelButton.addClickListener(e -> exportExcel());
 
+        Button importButton = new Button("Import CSV");
+        importButton.setIcon(new Icon(VaadinIcon.UPLOAD));
+        importButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
+        importButton.addClickListener(e -> openImportDialog());
+
         HorizontalLayout toolbar = new HorizontalLayout(
                 filterField,
                 addUserButton,
-                new HorizontalLayout(pdfButton, excelButton)
+                new HorizontalLayout(importButton, pdfButton, excelButton)
         );
 
         toolbar.addClassName("toolbar");
@@ -211,36 +249,53 @@ public class UserListView extends VerticalLayout {
         return content;
     }
 
-    private void loadUsers() {
-        try {
-            String searchText = filterField.getValue();
-            Pageable pageable = PageRequest.of(0, 100);
-            BaseResponse<Page<UserResponse>> response = userService.getAllUsers(searchText, pageable);
+    private Stream<UserResponse> fetchUsers(Query<UserResponse, Void> query) {
+        // id breaks ties so rows do not move between pages of an equal sort key
+        Pageable pageable = VaadinSpringDataHelpers.toSpringPageRequest(query);
+        Sort sort = pageable.getSort().getOrderFor("id") == null
+                ? pageable.getSort().and(Sort.by("id"))
+                : pageable.getSort();
+        pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+
+        BaseResponse<SlicePage<UserResponse>> response =
+                userService.listUsers(filterField.getValue(), pageable, CountMode.NONE);
+        if (!response.getStatus().equals(AppConstant.SUCCESS)) {
+            showLoadError(response.getMessage());
+            return Stream.empty();
+        }
+        return response.getData().getItems().stream();
+    }
 
-            if (response.getStatus().equals(AppConstant.SUCCESS)) {
-                grid.setItems(response.getData().getContent());
-            } else {
-                Notification.show(
-                        "Failed to load users: " + response.getMessage(),
-                        3000,
-                        Notification.Position.MIDDLE
-                );
-            }
-        } catch (Exception e) {
-            log.error("Error loading users", e);
-            Notification.show(
-                    "Error loading users: " + e.getMessage(),
-                    3000,
-                    Notification.Position.MIDDLE
-            );
+    private int estimateUserCount() {
+        BaseResponse<SlicePage<UserResponse>> response =
+                userService.listUsers(filterField.getValue(), PageRequest.of(0, 1), CountMode.CACHED);
+        // A failure shows up when the rows are fetched, an estimate must be at least one
+        if (!response.getStatus().equals(AppConstant.SUCCESS)) {
+            return 1;
         }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, response.getData().getTotalElements()));
+    }
+
+    private boolean isEmailAvailable(String email, Long userId) {
+        BaseResponse<EmailAvailabilityResponse> response = userService.isEmailAvailable(email, userId);
+        // A failed check does not block the form, saving still enforces uniqueness
+        return !response.getStatus().equals(AppConstant.SUCCESS) || response.getData().isAvailable();
+    }
+
+    private void showLoadError(String message) {
+        Notification.show(
+                "Failed to load users: " + message,
+                3000,
+                Notification.Position.MIDDLE
+        );
     }
 
     private void saveUser(UserForm.SaveEvent event) {
         try {
             BaseResponse<UserResponse> response;
             if (event.getUserId() != null) {
-                response = userService.updateUser(event.getUserId(), event.getUserRequest());
+                response = userService.updateUser(event.getUserId(), event.getUserRequest(),
+                        event.getUserVersion());
             } else {
                 response = userService.createUser(event.getUserRequest());
             }
@@ -263,7 +318,7 @@ public class UserListView extends VerticalLayout {
 
     private void deleteUser(UserForm.DeleteEvent event) {
         try {
-            BaseResponse<Void> response = userService.deleteUser(event.getUserId());
+            BaseResponse<Void> response = userService.deleteUser(event.getUserId(), event.getUserVersion());
             if (response.getStatus().equals(AppConstant.SUCCESS)) {
                 Notification.show("User deleted successfully",
                         3000, Notification.Position.MIDDLE);
@@ -284,12 +339,12 @@ public class UserListView extends VerticalLayout {
         if (user == null) return;
 
         try {
-            BaseResponse<Void> response = userService.deleteUser(user.getId());
+            BaseResponse<Void> response = userService.deleteUser(user.getId(), user.getVersion());
             if (response.getStatus().equals(AppConstant.SUCCESS)) {
                 Notification.show("User deleted successfully",
                         3000, Notification.Position.MIDDLE);
                 closeEditor();
-                loadUsers();
+                refreshGrid();
             } else {
                 Notification.show("Error: " + response.getMessage(),
                         3000, Notification.Position.MIDDLE);
@@ -323,100 +378,230 @@ public class UserListView extends VerticalLayout {
     }
 
     private void exportPdf() {
-        try {
-            BaseResponse<byte[]> response = reportService.generateUserReport();
-            if (response.getStatus().equals(AppConstant.SUCCESS)) {
-                String fileName = "users_report_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf";
-
-                StreamResource resource = new StreamResource(fileName,
-                        () -> new ByteArrayInputStream(response.getData()));
-
-                Anchor link = new Anchor(resource, "");
-                link.getElement().setAttribute("download", true);
-                link.add(new Button("Download PDF"));
-
-                Dialog dialog = new Dialog();
-                dialog.add(new H3("Download Report"));
-                dialog.add(new Paragraph("Your report is ready to download."));
-                dialog.add(link);
+        exportReport(ReportFormat.PDF);
+    }
 
-                Button closeButton = new Button("Close", e -> dialog.close());
-                closeButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
-                dialog.add(new HorizontalLayout(closeButton));
+    private void exportExcel() {
+        exportReport(ReportFormat.EXCEL);
+    }
 
-                dialog.open();
+    private void exportReport(ReportFormat format) {
+        try {
+            ReportJobRequest request = ReportJobRequest.builder()
+                    .format(format)
+                    .search(filterField.getValue())
+                    .build();
+            BaseResponse<ReportJobResponse> response = reportJobService.submitJob(request);
+            if (response.getStatus().equals(AppConstant.SUCCESS)) {
+                showReportProgress(response.getData());
             } else {
-                Notification.show("Error generating PDF: " + response.getMessage(),
+                Notification.show("Error generating " + format + ": " + response.getMessage(),
                         3000, Notification.Position.MIDDLE);
             }
         } catch (Exception e) {
-            log.error("Error exporting PDF", e);
-            Notification.show("Error generating PDF report",
+            log.error("Error exporting {}", format, e);
+            Notification.show("Error generating " + format + " report",
                     3000, Notification.Position.MIDDLE);
         }
     }
 
+    private void showReportProgress(ReportJobResponse job) {
+        ProgressBar progressBar = new ProgressBar(0, 100, 0);
+        Paragraph statusText = new Paragraph("Your report is queued.");
+        Div downloadArea = new Div();
+
+        Dialog dialog = new Dialog();
+        dialog.add(new H3("Generating Report"));
+        dialog.add(statusText, progressBar, downloadArea);
+
+        Button closeButton = new Button("Close", e -> dialog.close());
+        closeButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
+        dialog.add(new HorizontalLayout(closeButton));
+
+        // The job runs on the report pool, the dialog only polls its status
+        UI ui = UI.getCurrent();
+        Registration pollRegistration = ui.addPollListener(
+                e -> updateReportProgress(job.getId(), progressBar, statusText, downloadArea));
+        ui.setPollInterval(1000);
+
+        dialog.addOpenedChangeListener(e -> {
+            if (!e.isOpened()) {
+                pollRegistration.remove();
+                ui.setPollInterval(-1);
+                reportJobService.cancelJob(job.getId());
+            }
+        });
 
-    private void exportExcel() {
-        try {
-            BaseResponse<byte[]> response = reportService.generateUserExcelReport();
-            if (response.getStatus().equals(AppConstant.SUCCESS)) {
-                String fileName = "users_report_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".xlsx";
+        dialog.open();
+    }
 
-                StreamResource resource = new StreamResource(fileName,
-                        () -> new ByteArrayInputStream(response.getData()));
+    private void updateReportProgress(String jobId, ProgressBar progressBar, Paragraph statusText, Div downloadArea) {
+        BaseResponse<ReportJobResponse> response = reportJobService.getJob(jobId);
+        if (!response.getStatus().equals(AppConstant.SUCCESS)) {
+            statusText.setText("Report is no longer available.");
+            UI.getCurrent().setPollInterval(-1);
+            return;
+        }
+
+        ReportJobResponse job = response.getData();
+        progressBar.setValue(job.getProgress());
+        switch (job.getStatus()) {
+            case QUEUED -> statusText.setText("Your report is queued.");
+            case RUNNING -> statusText.setText("Generating report: " + job.getProcessedRows()
+                    + " of " + job.getTotalRows() + " users.");
+            case COMPLETED -> {
+                statusText.setText("Your report is ready to download.");
+                downloadArea.removeAll();
+                downloadArea.add(createReportLink(job));
+                UI.getCurrent().setPollInterval(-1);
+            }
+            default -> {
+                statusText.setText("Report was not generated: " + job.getMessage());
+                UI.getCurrent().setPollInterval(-1);
+            }
+        }
+    }
 
-                // Buat anchor untuk download
-                Anchor link = new Anchor(resource, "");
-                link.getElement().setAttribute("download", true);
-                link.add(new Button("Download Excel"));
+    private Anchor createReportLink(ReportJobResponse job) {
+        String fileName = "users_report_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"))
+                + "." + job.getFormat().getExtension();
+        StreamResource resource = new StreamResource(fileName, () -> {
+            BaseResponse<ReportFile> file = reportJobService.getJobFile(job.getId());
+            try {
+                return Files.newInputStream(file.getData().path());
+            } catch (Exception e) {
+                log.error("Error reading report {}", job.getId(), e);
+                return InputStream.nullInputStream();
+            }
+        });
 
-                // Buat dialog
-                Dialog dialog = new Dialog();
-                dialog.add(new H3("Download Report"));
-                dialog.add(new Paragraph("Your report is ready to download."));
-                dialog.add(link);
+        Anchor link = new Anchor(resource, "");
+        link.getElement().setAttribute("download", true);
+        link.add(new Button("Download " + (job.getFormat() == ReportFormat.PDF ? "PDF" : "Excel")));
+        return link;
+    }
 
-                Button closeButton = new Button("Close", e -> dialog.close());
-                closeButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
-                dialog.add(new HorizontalLayout(closeButton));
+    private void openImportDialog() {
+        FileBuffer buffer = new FileBuffer();
+        Upload upload = new Upload(buffer);
+        upload.setAcceptedFileTypes("text/csv", ".csv");
+        upload.setMaxFiles(1);
+
+        Dialog dialog = new Dialog();
+        dialog.add(new H3("Import Users"));
+        dialog.add(new Paragraph("CSV columns: first_name, last_name, email, phone_number, status"));
+        dialog.add(upload);
+
+        Button closeButton = new Button("Close", e -> dialog.close());
+        closeButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
+        dialog.add(new HorizontalLayout(closeButton));
+
+        upload.addSucceededListener(event -> {
+            BaseResponse<UserImportResponse> response;
+            try (InputStream content = buffer.getInputStream()) {
+                response = userImportService.submitImport(event.getFileName(), content);
+            } catch (Exception e) {
+                log.error("Error reading upload {}", event.getFileName(), e);
+                response = BaseResponse.error(HttpStatus.INTERNAL_SERVER_ERROR.value(), ErrorCode.SYSTEM_ERROR,
+                        "Error reading upload");
+            } finally {
+                buffer.getFileData().getFile().delete();
+            }
 
-                dialog.open();
+            dialog.close();
+            if (response.getStatus().equals(AppConstant.SUCCESS)) {
+                showImportProgress(response.getData());
             } else {
-                Notification.show("Error generating Excel: " + response.getMessage(),
+                Notification.show("Error importing users: " + response.getMessage(),
                         3000, Notification.Position.MIDDLE);
             }
-        } catch (Exception e) {
-            log.error("Error exporting Excel", e);
-            Notification.show("Error generating Excel report",
-                    3000, Notification.Position.MIDDLE);
-        }
+        });
+
+        dialog.open();
     }
 
-    private void refreshGrid() {
-        try {
-            log.info("Loading users with search text: {}", filterField.getValue());
-            Pageable pageable = PageRequest.of(0, 100);
-            BaseResponse<Page<UserResponse>> response = userService.getAllUsers(filterField.getValue(), pageable);
+    private void showImportProgress(UserImportResponse userImport) {
+        ProgressBar progressBar = new ProgressBar(0, 100, 0);
+        Paragraph statusText = new Paragraph("Your import is queued.");
+        Div downloadArea = new Div();
+
+        Dialog dialog = new Dialog();
+        dialog.add(new H3("Importing Users"));
+        dialog.add(statusText, progressBar, downloadArea);
+
+        Button closeButton = new Button("Close", e -> dialog.close());
+        closeButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
+        dialog.add(new HorizontalLayout(closeButton));
+
+        // The import keeps running in the background when the dialog is closed
+        UI ui = UI.getCurrent();
+        Registration pollRegistration = ui.addPollListener(
+                e -> updateImportProgress(userImport.getId(), progressBar, statusText, downloadArea));
+        ui.setPollInterval(1000);
+
+        dialog.addOpenedChangeListener(e -> {
+            if (!e.isOpened()) {
+                pollRegistration.remove();
+                ui.setPollInterval(-1);
+                refreshGrid();
+            }
+        });
 
-            if (response.getStatus().equals(AppConstant.SUCCESS)) {
-                java.util.List<UserResponse> users = response.getData().getContent();
-                log.info("Found {} users", users.size());
-                grid.setItems(users);
-            } else {
-                Notification.show(
-                        "Failed to load users: " + response.getMessage(),
-                        3000,
-                        Notification.Position.MIDDLE
-                );
+        dialog.open();
+    }
+
+    private void updateImportProgress(String importId, ProgressBar progressBar, Paragraph statusText,
+                                      Div downloadArea) {
+        BaseResponse<UserImportResponse> response = userImportService.getImport(importId);
+        if (!response.getStatus().equals(AppConstant.SUCCESS)) {
+            statusText.setText("Import is no longer available.");
+            UI.getCurrent().setPollInterval(-1);
+            return;
+        }
+
+        UserImportResponse userImport = response.getData();
+        progressBar.setValue(userImport.getProgress());
+        String counters = userImport.getImportedRows() + " imported, "
+                + userImport.getRejectedRows() + " rejected of " + userImport.getParsedRows() + " rows.";
+        switch (userImport.getStatus()) {
+            case QUEUED -> statusText.setText("Your import is queued.");
+            case RUNNING -> statusText.setText("Importing: " + counters);
+            case COMPLETED -> {
+                statusText.setText("Import finished: " + counters);
+                if (userImport.getRejectedRows() > 0) {
+                    downloadArea.removeAll();
+                    downloadArea.add(createImportErrorLink(importId));
+                }
+                UI.getCurrent().setPollInterval(-1);
+                refreshGrid();
+            }
+            default -> {
+                statusText.setText("Import stopped: " + userImport.getMessage());
+                UI.getCurrent().setPollInterval(-1);
             }
-        } catch (Exception e) {
-            log.error("Error loading users", e);
-            Notification.show(
-                    "Error loading users: " + e.getMessage(),
-                    3000,
-                    Notification.Position.MIDDLE
-            );
         }
     }
-}
\ No newline at end of file
+
+    private Anchor createImportErrorLink(String importId) {
+        StreamResource resource = new StreamResource("user_import_errors.csv", () -> {
+            BaseResponse<ImportErrorReport> report = userImportService.getErrorReport(importId);
+            try {
+                return Files.newInputStream(report.getData().path());
+            } catch (Exception e) {
+                log.error("Error reading import errors {}", importId, e);
+                return InputStream.nullInputStream();
+            }
+        });
+
+        Anchor link = new Anchor(resource, "");
+        link.getElement().setAttribute("download", true);
+        link.add(new Button("Download rejected rows"));
+        return link;
+    }
+
+    private void refreshGrid() {
+        log.info("Refreshing users with search text: {}", filterField.getValue());
+        grid.getLazyDataView().setItemCountEstimate(estimateUserCount());
+        grid.getDataProvider().refreshAll();
+    }
+}
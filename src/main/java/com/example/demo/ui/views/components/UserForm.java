@@ -26,11 +26,19 @@ import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.shared.Registration;
 import lombok.Getter;
 
+import java.util.function.BiPredicate;
+
 
 public class UserForm extends FormLayout {
+    private static final int EMAIL_CHECK_TIMEOUT_MS = 300;
+
     private final BeanValidationBinder<UserRequest> binder;
+    // Tells whether an email is free for the user being edited (null for a new user)
+    private final BiPredicate<String, Long> emailAvailability;
     private UserRequest userRequest;
     private Long userId;
+    // Version the user was loaded at, so saving over a newer edit is rejected
+    private Long userVersion;
 
     // Form fields
     private final TextField firstName = new TextField("First Name");
@@ -45,6 +53,11 @@ public class UserForm extends FormLayout {
     private final Button cancel = new Button("Cancel");
 
     public UserForm() {
+        this((email, userId) -> true);
+    }
+
+    public UserForm(BiPredicate<String, Long> emailAvailability) {
+        this.emailAvailability = emailAvailability;
         addClassName("user-form");
         binder = new BeanValidationBinder<>(UserRequest.class);
         userRequest = new UserRequest();
@@ -82,6 +95,8 @@ public class UserForm extends FormLayout {
         // Email validation
         binder.forField(email)
                 .withValidator(new EmailValidator("Invalid email address"))
+                .withValidator(value -> emailAvailability.test(value, userId),
+                        AppConstant.EMAIL_ALREADY_EXISTS)
                 .bind(UserRequest::getEmail, UserRequest::setEmail);
 
         // Phone validation
@@ -122,7 +137,9 @@ public class UserForm extends FormLayout {
         email.setErrorMessage("Valid email is required");
         email.setPrefixComponent(VaadinIcon.ENVELOPE.create());
         email.setHelperText("Format : xxx@email.domain");
-        email.setValueChangeMode(ValueChangeMode.EAGER);
+        // Availability is checked on the server, so wait for a pause in typing
+        email.setValueChangeMode(ValueChangeMode.LAZY);
+        email.setValueChangeTimeout(EMAIL_CHECK_TIMEOUT_MS);
 
         // Phone
         phoneNumber.setPrefixComponent(VaadinIcon.PHONE.create());
@@ -147,7 +164,7 @@ public class UserForm extends FormLayout {
         delete.addThemeVariants(ButtonVariant.LUMO_ERROR);
         delete.getStyle().set("margin-left", "auto");
         delete.setVisible(false);
-        delete.addClickListener(event -> fireEvent(new DeleteEvent(this, userId)));
+        delete.addClickListener(event -> fireEvent(new DeleteEvent(this, userId, userVersion)));
 
         // Cancel button
         cancel.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
@@ -243,6 +260,7 @@ public class UserForm extends FormLayout {
 
     public void setUser(UserResponse user) {
         this.userId = user != null ? user.getId() : null;
+        this.userVersion = user != null ? user.getVersion() : null;
 
         userRequest = new UserRequest();
         if (user != null) {
@@ -288,7 +306,7 @@ public class UserForm extends FormLayout {
             // Validate form
             if (binder.validate().isOk()) {
                 binder.writeBean(userRequest);
-                fireEvent(new SaveEvent(this, userId, userRequest));
+                fireEvent(new SaveEvent(this, userId, userVersion, userRequest));
             }
         } catch (ValidationException e) {
             Notification.show("Please check the form for errors",
@@ -300,10 +318,12 @@ public class UserForm extends FormLayout {
     @Getter
     public static abstract class UserFormEvent extends ComponentEvent<UserForm> {
         private final Long userId;
+        private final Long userVersion;
 
-        protected UserFormEvent(UserForm source, Long userId) {
+        protected UserFormEvent(UserForm source, Long userId, Long userVersion) {
             super(source, false);
             this.userId = userId;
+            this.userVersion = userVersion;
         }
     }
 
@@ -311,21 +331,21 @@ public class UserForm extends FormLayout {
     public static class SaveEvent extends UserFormEvent {
         private final UserRequest userRequest;
 
-        SaveEvent(UserForm source, Long userId, UserRequest userRequest) {
-            super(source, userId);
+        SaveEvent(UserForm source, Long userId, Long userVersion, UserRequest userRequest) {
+            super(source, userId, userVersion);
             this.userRequest = userRequest;
         }
     }
 
     public static class DeleteEvent extends UserFormEvent {
-        DeleteEvent(UserForm source, Long userId) {
-            super(source, userId);
+        DeleteEvent(UserForm source, Long userId, Long userVersion) {
+            super(source, userId, userVersion);
         }
     }
 
     public static class CloseEvent extends UserFormEvent {
         CloseEvent(UserForm source) {
-            super(source, null);
+            super(source, null, null);
         }
     }
 
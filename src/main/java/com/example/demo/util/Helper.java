@@ -5,7 +5,6 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.modelmapper.ModelMapper;
 import org.springframework.web.client.RestTemplate;
 
 @Component
@@ -14,7 +13,6 @@ import org.springframework.web.client.RestTemplate;
 public class Helper {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final ModelMapper modelMapper = new ModelMapper();
 
     public ObjectMapper getObjectMapper() {
         return objectMapper;
@@ -23,8 +21,4 @@ public class Helper {
     public ObjectWriter getObjectWriter() {
         return getObjectMapper().writer().withDefaultPrettyPrinter();
     }
-
-    public ModelMapper getModelMapper() {
-        return modelMapper;
-    }
 }
\ No newline at end of file
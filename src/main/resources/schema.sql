@@ -1,13 +1,21 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     first_name VARCHAR(50) NOT NULL,
     last_name VARCHAR(50) NOT NULL,
     email VARCHAR(100) NOT NULL UNIQUE,
     phone_number VARCHAR(15),
     status VARCHAR(20) NOT NULL,
     created_at TIMESTAMP NOT NULL,
-    updated_at TIMESTAMP
+    updated_at TIMESTAMP,
+    version BIGINT DEFAULT 0 NOT NULL
 );
 
 CREATE INDEX idx_user_email ON users(email);
-CREATE INDEX idx_user_status ON users(status);
\ No newline at end of file
+CREATE INDEX idx_user_status ON users(status);
+
+-- Keyset pagination indexes, one per supported sort key with id as tie breaker
+CREATE INDEX idx_user_email_id ON users(email, id);
+CREATE INDEX idx_user_created_at_id ON users(created_at, id);
+CREATE INDEX idx_user_last_name_id ON users(last_name, id);
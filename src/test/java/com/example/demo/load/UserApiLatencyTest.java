@@ -0,0 +1,343 @@
+package com.example.demo.load;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.support.TestUsers;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.h2.tools.RunScript;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-endpoint p50/p95/p99 of the user API on a seeded, file-based database, checked
+ * against a stored baseline before a deploy.
+ * <p>
+ * The database is seeded with {@code latency.users} (100000) users before the
+ * application starts, so the caches, the search index and the email filter load them
+ * as they would in production. {@code latency.clients} (50) clients then each send
+ * their next request as soon as the previous one is answered, picking the endpoint
+ * from {@code latency.mix}. Latencies are recorded in one HdrHistogram per endpoint;
+ * the percentile distributions and a {@code latency-result.properties} are written to
+ * {@code target/latency}.
+ * <p>
+ * A percentile fails the test when it exceeds the one in {@code latency.baseline} by
+ * more than {@code latency.tolerance} (20%) and {@code latency.min-regression-ms}
+ * (5 ms). Without a baseline file the results are only reported; run with
+ * {@code -Dlatency.record-baseline=true} to store them as the new baseline.
+ * Run with: {@code mvn -Pload-test test -Dtest=UserApiLatencyTest}
+ */
+@Slf4j
+@Tag("load")
+class UserApiLatencyTest {
+
+    private static final int USERS = Integer.getInteger("latency.users", 100_000);
+    private static final int CLIENTS = Integer.getInteger("latency.clients", 50);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("latency.warmup", "PT10S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("latency.duration", "PT60S"));
+    private static final String MIX = System.getProperty("latency.mix",
+            "get=40,list=15,search=15,create=10,update=10,delete=5,export=5");
+    private static final Path BASELINE = Paths.get(System.getProperty("latency.baseline",
+            "src/test/resources/load/latency-baseline.properties"));
+    private static final boolean RECORD_BASELINE = Boolean.getBoolean("latency.record-baseline");
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("latency.tolerance", "0.20"));
+    private static final double MIN_REGRESSION_MS = Double.parseDouble(
+            System.getProperty("latency.min-regression-ms", "5"));
+    private static final Path OUTPUT = Paths.get("target", "latency");
+    private static final double[] PERCENTILES = {50, 95, 99};
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toNanos(2);
+    private static final LocalDateTime SEEDED_FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Ann", "Budi", "Siti", "Maria", "Ahmad", "Lee"};
+    private static final String[] LAST_NAMES = {"Doe", "Smith", "Lee", "Santoso", "Wijaya", "Garcia", "Tan"};
+
+    enum Endpoint {
+        GET, LIST, SEARCH, CREATE, UPDATE, DELETE, EXPORT;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Test
+    void endpointLatenciesStayWithinBaseline() throws Exception {
+        Map<Endpoint, Integer> mix = parseMix(MIX);
+        Path database = OUTPUT.resolve("db-" + UUID.randomUUID());
+        Files.createDirectories(OUTPUT);
+        try {
+            String url = "jdbc:h2:file:" + database.toAbsolutePath().resolve("users");
+            seed(url);
+
+            Map<Endpoint, Histogram> histograms;
+            LongAdder errors = new LongAdder();
+            try (ConfigurableApplicationContext context = start(url)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                String baseUrl = "http://localhost:" + port + "/user/api/v1/users";
+
+                log.info("Warming up {} clients for {}s", CLIENTS, WARMUP.toSeconds());
+                drive(client, baseUrl, mix, WARMUP, new LongAdder());
+                log.info("Measuring {} clients for {}s", CLIENTS, DURATION.toSeconds());
+                histograms = drive(client, baseUrl, mix, DURATION, errors);
+            }
+
+            Map<String, Double> results = summarize(histograms);
+            report(histograms, errors.sum());
+            writeResults(histograms, results);
+
+            assertThat(errors.sum()).as("failed requests").isZero();
+            if (RECORD_BASELINE) {
+                store(results, BASELINE);
+                log.info("Recorded baseline {}", BASELINE.toAbsolutePath());
+            } else if (Files.exists(BASELINE)) {
+                assertThat(regressions(results, load(BASELINE))).as("regressions against " + BASELINE).isEmpty();
+            } else {
+                log.warn("No baseline at {}, results were not compared", BASELINE.toAbsolutePath());
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(database);
+        }
+    }
+
+    /**
+     * Creates the schema and inserts the users in one statement, before the
+     * application is started on the same file.
+     */
+    private void seed(String url) throws SQLException, IOException {
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Reader schema = new InputStreamReader(new ClassPathResource("schema.sql").getInputStream(),
+                     StandardCharsets.UTF_8)) {
+            RunScript.execute(connection, schema);
+            TestUsers.insert(connection, USERS, SEEDED_FROM);
+        }
+        log.info("Seeded {} users in {} ms", USERS, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private ConfigurableApplicationContext start(String url) {
+        // Arguments, unlike default properties, take precedence over application.properties
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + url,
+                        "--spring.sql.init.mode=never",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example.demo.load=INFO",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--vaadin.launch-browser=false");
+    }
+
+    private Map<Endpoint, Histogram> drive(HttpClient client, String baseUrl, Map<Endpoint, Integer> mix,
+                                           Duration duration, LongAdder errors) throws InterruptedException {
+        Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+        mix.keySet().forEach(endpoint -> histograms.put(endpoint, new ConcurrentHistogram(MAX_LATENCY, 3)));
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    Endpoint endpoint = pick(mix, totalWeight);
+                    HttpRequest request = request(baseUrl, endpoint);
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        long latency = System.nanoTime() - sent;
+                        if (isExpected(response.statusCode())) {
+                            histograms.get(endpoint).recordValue(Math.min(latency, MAX_LATENCY));
+                        } else {
+                            log.warn("{} {} answered {}", request.method(), request.uri(), response.statusCode());
+                            errors.increment();
+                        }
+                    } catch (IOException e) {
+                        log.warn("{} {} failed: {}", request.method(), request.uri(), e.toString());
+                        errors.increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        assertThat(clients.awaitTermination(duration.toSeconds() + 120, TimeUnit.SECONDS)).isTrue();
+        return histograms;
+    }
+
+    private static Endpoint pick(Map<Endpoint, Integer> mix, int totalWeight) {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Endpoint, Integer> entry : mix.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights do not add up to " + totalWeight);
+    }
+
+    private static HttpRequest request(String baseUrl, Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = random.nextLong(1, USERS + 1);
+        HttpRequest.Builder builder = switch (endpoint) {
+            case GET -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET();
+            case LIST -> HttpRequest.newBuilder(URI.create(baseUrl + "?page=" + random.nextInt(50) + "&size=20"))
+                    .GET();
+            case SEARCH -> HttpRequest.newBuilder(URI.create(baseUrl + "?size=20&search="
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)].toLowerCase(Locale.ROOT))).GET();
+            case CREATE -> HttpRequest.newBuilder(URI.create(baseUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(userJson(
+                            "latency" + Long.toUnsignedString(random.nextLong(), 36) + "@example.com")));
+            case UPDATE -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + id))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(userJson("user" + id + "@example.com")));
+            case DELETE -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).DELETE();
+            // Users changed since the last thousand were seeded, plus everything written by the run
+            case EXPORT -> HttpRequest.newBuilder(URI.create(baseUrl + "/stream?updated_since="
+                    + SEEDED_FROM.plusSeconds(Math.max(0, USERS - 1000)))).GET();
+        };
+        return builder.timeout(Duration.ofSeconds(60)).build();
+    }
+
+    private static String userJson(String email) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return String.format("{\"first_name\":\"%s\",\"last_name\":\"%s\",\"email\":\"%s\","
+                        + "\"phone_number\":\"+62812%07d\",\"status\":\"ACTIVE\"}",
+                FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                email, random.nextInt(10_000_000));
+    }
+
+    /**
+     * Random ids may already have been deleted, so 404 is a valid answer.
+     */
+    private static boolean isExpected(int status) {
+        return status / 100 == 2 || status == 304 || status == 404;
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Endpoint.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        assertThat(weights).as("latency.mix").isNotEmpty();
+        return weights;
+    }
+
+    private static Map<String, Double> summarize(Map<Endpoint, Histogram> histograms) {
+        Map<String, Double> results = new LinkedHashMap<>();
+        histograms.forEach((endpoint, histogram) -> {
+            for (double percentile : PERCENTILES) {
+                results.put(endpoint.key() + ".p" + (int) percentile,
+                        histogram.getValueAtPercentile(percentile) / 1_000_000.0);
+            }
+        });
+        return results;
+    }
+
+    private static List<String> regressions(Map<String, Double> results, Map<String, Double> baseline) {
+        List<String> regressions = new ArrayList<>();
+        results.forEach((key, value) -> {
+            Double expected = baseline.get(key);
+            if (expected != null && value > expected * (1 + TOLERANCE) && value - expected > MIN_REGRESSION_MS) {
+                regressions.add(String.format("%s %.1f ms, baseline %.1f ms", key, value, expected));
+            }
+        });
+        return regressions;
+    }
+
+    private static void report(Map<Endpoint, Histogram> histograms, long errors) {
+        StringBuilder report = new StringBuilder(String.format("%n%d users, %d clients, %ds, %d errors%n",
+                USERS, CLIENTS, DURATION.toSeconds(), errors));
+        report.append(String.format("%-8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        histograms.forEach((endpoint, histogram) -> report.append(String.format(
+                "%-8s %10d %10.1f %10.1f %10.1f %10.1f%n", endpoint.key(), histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1_000_000.0, histogram.getValueAtPercentile(95) / 1_000_000.0,
+                histogram.getValueAtPercentile(99) / 1_000_000.0, histogram.getMaxValue() / 1_000_000.0)));
+        log.info("{}", report);
+    }
+
+    private static void writeResults(Map<Endpoint, Histogram> histograms, Map<String, Double> results)
+            throws IOException {
+        for (Map.Entry<Endpoint, Histogram> entry : histograms.entrySet()) {
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(OUTPUT.resolve(entry.getKey().key() + ".hgrm")), false,
+                    StandardCharsets.UTF_8)) {
+                entry.getValue().outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+        store(results, OUTPUT.resolve("latency-result.properties"));
+    }
+
+    private static void store(Map<String, Double> results, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("# Latency in ms, %d users, %d clients, %ds, mix %s",
+                USERS, CLIENTS, DURATION.toSeconds(), MIX));
+        results.forEach((key, value) -> lines.add(String.format(Locale.ROOT, "%s=%.3f", key, value)));
+        Files.write(file, lines);
+    }
+
+    private static Map<String, Double> load(Path file) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Map<String, Double> baseline = new LinkedHashMap<>();
+        properties.stringPropertyNames().forEach(key ->
+                baseline.put(key, Double.parseDouble(properties.getProperty(key))));
+        return baseline;
+    }
+}
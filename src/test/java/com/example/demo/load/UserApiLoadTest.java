@@ -0,0 +1,179 @@
+package com.example.demo.load;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.constant.UserStatus;
+import com.example.demo.domain.dto.request.UserRequest;
+import com.example.demo.service.UserBatchService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and latency of {@code GET /api/v1/users} under {@code load.clients} (2000)
+ * concurrent clients, first on Tomcat's platform thread pool and then with the
+ * {@code virtual-threads} profile. Virtual threads need Java 21, on older runtimes only
+ * the platform run is measured.
+ * <p>
+ * Each mode starts its own application on a fresh in-memory database. Every client sends
+ * its next request as soon as the previous one is answered, for {@code load.warmup} and
+ * then {@code load.duration}. Run with: {@code mvn -Pload-test test}
+ */
+@Slf4j
+@Tag("load")
+class UserApiLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 2000);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT30S"));
+    private static final int USERS = 1000;
+    private static final int PAGE_SIZE = 20;
+
+    @Test
+    void listUsersOnPlatformAndVirtualThreads() throws Exception {
+        List<LoadResult> results = new ArrayList<>();
+        results.add(run("platform threads"));
+        if (Runtime.version().feature() >= 21) {
+            results.add(run("virtual threads", "virtual-threads"));
+        } else {
+            log.warn("Running on Java {}, virtual threads need Java 21 and were not measured",
+                    Runtime.version().feature());
+        }
+
+        StringBuilder report = new StringBuilder(String.format("%nGET /api/v1/users, %d clients, %ds%n",
+                CLIENTS, DURATION.toSeconds()));
+        report.append(String.format("%-18s %10s %10s %10s %10s %10s %8s%n",
+                "mode", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors"));
+        results.forEach(result -> report.append(result.format()).append('\n'));
+        log.info("{}", report);
+
+        assertThat(results).allSatisfy(result -> {
+            assertThat(result.requests()).isPositive();
+            assertThat(result.errors()).isZero();
+        });
+    }
+
+    private LoadResult run(String mode, String... profiles) throws InterruptedException {
+        try (ConfigurableApplicationContext context = start(profiles)) {
+            seed(context.getBean(UserBatchService.class));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            log.info("Warming up {} for {}s", mode, WARMUP.toSeconds());
+            drive(client, port, mode, WARMUP);
+            log.info("Measuring {} for {}s", mode, DURATION.toSeconds());
+            return drive(client, port, mode, DURATION);
+        }
+    }
+
+    private ConfigurableApplicationContext start(String... profiles) {
+        // Arguments, unlike default properties, take precedence over application.properties
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .profiles(profiles)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.sql.init.mode=never",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example.demo.load=INFO",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--vaadin.launch-browser=false");
+    }
+
+    private void seed(UserBatchService userBatchService) {
+        List<UserRequest> users = IntStream.range(0, USERS)
+                .mapToObj(i -> UserRequest.builder()
+                        .firstName("Load")
+                        .lastName("User")
+                        .email("load" + i + "@example.com")
+                        .status(UserStatus.ACTIVE)
+                        .build())
+                .toList();
+        assertThat(userBatchService.createUsers(users).getData().getSucceeded()).isEqualTo(USERS);
+    }
+
+    private LoadResult drive(HttpClient client, int port, String mode, Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        CountDownLatch finished = new CountDownLatch(CLIENTS);
+        LongAdder errors = new LongAdder();
+        List<List<Long>> latencies = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            // A client's requests complete one after another, so its list needs no locking
+            List<Long> samples = new ArrayList<>();
+            latencies.add(samples);
+            send(client, port, i, samples, errors, deadline, finished);
+        }
+        finished.await();
+        long elapsed = System.nanoTime() - start;
+
+        long[] sorted = latencies.stream().flatMap(List::stream).mapToLong(Long::longValue).sorted().toArray();
+        return new LoadResult(mode, sorted, errors.sum(), elapsed);
+    }
+
+    private void send(HttpClient client, int port, int clientId, List<Long> samples, LongAdder errors,
+                      long deadline, CountDownLatch finished) {
+        if (System.nanoTime() >= deadline) {
+            finished.countDown();
+            return;
+        }
+        int page = (clientId + samples.size()) % (USERS / PAGE_SIZE);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + port + "/user/api/v1/users?page=" + page + "&size=" + PAGE_SIZE))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null || response.statusCode() != 200) {
+                errors.increment();
+            } else {
+                samples.add(System.nanoTime() - sent);
+            }
+            send(client, port, clientId, samples, errors, deadline, finished);
+        });
+    }
+
+    private record LoadResult(String mode, long[] latencies, long errors, long elapsedNanos) {
+
+        long requests() {
+            return latencies.length;
+        }
+
+        double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        String format() {
+            return String.format("%-18s %10d %10.0f %10.1f %10.1f %10.1f %8d", mode, requests(),
+                    requests() / (elapsedNanos / 1_000_000_000.0), percentileMillis(50), percentileMillis(99),
+                    percentileMillis(100), errors);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.service.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailBloomFilterTest {
+
+    private SingleConnectionDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:email-filter", "sa", "", true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, email VARCHAR(100))");
+        jdbcTemplate.update("INSERT INTO users VALUES (1, 'alice@example.com'), (2, 'Bob@Example.org')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void reportsEveryEmailPresentUntilBuilt() {
+        EmailBloomFilter filter = new EmailBloomFilter(dataSource, 1000, 0.01);
+
+        assertThat(filter.mightContain("nobody@example.com")).isTrue();
+    }
+
+    @Test
+    void hasNoFalseNegatives() {
+        EmailBloomFilter filter = new EmailBloomFilter(dataSource, 1000, 0.01);
+        filter.build();
+        // Far more emails than expected, which only raises the false positive rate
+        IntStream.range(0, 20_000).forEach(i -> filter.add("user" + i + "@example.com"));
+
+        assertThat(filter.mightContain("alice@example.com")).isTrue();
+        assertThat(filter.mightContain(" BOB@example.ORG ")).isTrue();
+        assertThat(IntStream.range(0, 20_000).allMatch(i -> filter.mightContain("user" + i + "@example.com")))
+                .isTrue();
+    }
+
+    @Test
+    void keepsTheFalsePositiveRateNearTheTarget() {
+        EmailBloomFilter filter = new EmailBloomFilter(dataSource, 10_000, 0.01);
+        filter.build();
+        IntStream.range(0, 10_000).forEach(i -> filter.add("member" + i + "@example.com"));
+
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain("stranger" + i + "@example.net"))
+                .count();
+        assertThat(falsePositives).isLessThan(200);
+    }
+
+    @Test
+    void keepsWritesThatLandDuringTheBuild() {
+        AtomicInteger connections = new AtomicInteger();
+        EmailBloomFilter[] filter = new EmailBloomFilter[1];
+        // The count is the first query, the email scan the second: write in between
+        DelegatingDataSource writeDuringLoad = new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (connections.incrementAndGet() == 2) {
+                    filter[0].add("during-build@example.com");
+                }
+                return super.getConnection();
+            }
+        };
+        filter[0] = new EmailBloomFilter(writeDuringLoad, 1000, 0.01);
+        filter[0].add("before-build@example.com");
+
+        filter[0].build();
+
+        assertThat(connections).hasValue(2);
+        assertThat(filter[0].mightContain("before-build@example.com")).isTrue();
+        assertThat(filter[0].mightContain("during-build@example.com")).isTrue();
+        assertThat(filter[0].mightContain("alice@example.com")).isTrue();
+    }
+
+    @Test
+    void keepsAnsweringPresentWhenTheBuildFails() {
+        new JdbcTemplate(dataSource).execute("DROP TABLE users");
+        EmailBloomFilter filter = new EmailBloomFilter(dataSource, 1000, 0.01);
+        filter.build();
+        filter.add("later@example.com");
+
+        assertThat(filter.mightContain("nobody@example.com")).isTrue();
+    }
+
+    @Test
+    void sizesBitsAndHashesForTheExpectedInsertions() {
+        // m = -n ln p / (ln 2)^2 rounded up to whole words, k = m / n ln 2
+        EmailBloomFilter.Bits million = EmailBloomFilter.Bits.create(1_000_000, 0.01);
+        assertThat(million.size()).isEqualTo(9_585_088);
+        assertThat(million.words().length()).isEqualTo(9_585_088 / 64);
+        assertThat(million.hashes()).isEqualTo(7);
+
+        EmailBloomFilter.Bits thousand = EmailBloomFilter.Bits.create(1000, 0.001);
+        assertThat(thousand.size()).isEqualTo(14_400);
+        assertThat(thousand.hashes()).isEqualTo(10);
+
+        EmailBloomFilter.Bits tiny = EmailBloomFilter.Bits.create(1, 0.5);
+        assertThat(tiny.size()).isEqualTo(64);
+        assertThat(tiny.hashes()).isPositive();
+    }
+}
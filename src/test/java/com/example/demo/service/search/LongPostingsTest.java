@@ -0,0 +1,63 @@
+package com.example.demo.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongPostingsTest {
+
+    @Test
+    void keepsIdsSortedAndUnique() {
+        LongPostings postings = postings(5, 1, 9, 3, 5, 7, 1);
+
+        assertThat(postings.toArray()).containsExactly(1, 3, 5, 7, 9);
+        assertThat(postings.size()).isEqualTo(5);
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        LongPostings postings = new LongPostings();
+        LongStream.rangeClosed(1, 100).map(i -> 101 - i).forEach(postings::add);
+
+        assertThat(postings.toArray()).containsExactly(LongStream.rangeClosed(1, 100).toArray());
+    }
+
+    @Test
+    void removesOnlyExistingIds() {
+        LongPostings postings = postings(1, 3, 5);
+
+        postings.remove(4);
+        postings.remove(1);
+        postings.remove(5);
+
+        assertThat(postings.toArray()).containsExactly(3);
+        postings.remove(3);
+        assertThat(postings.isEmpty()).isTrue();
+        assertThat(postings.toArray()).isEmpty();
+    }
+
+    @Test
+    void retainsTheIntersection() {
+        LongPostings postings = postings(2, 4, 6, 8, 10);
+
+        assertThat(postings.retainAll(new long[]{1, 2, 3, 8, 10, 12})).containsExactly(2, 8, 10);
+    }
+
+    @Test
+    void retainsNothingFromEmptyOrDisjointLists() {
+        assertThat(postings(2, 4, 6).retainAll(new long[0])).isEmpty();
+        assertThat(new LongPostings().retainAll(new long[]{1, 2, 3})).isEmpty();
+        assertThat(postings(2, 4, 6).retainAll(new long[]{1, 3, 5, 7})).isEmpty();
+        assertThat(postings(2, 4, 6).retainAll(new long[]{7, 8, 9})).isEmpty();
+    }
+
+    private static LongPostings postings(long... ids) {
+        LongPostings postings = new LongPostings();
+        for (long id : ids) {
+            postings.add(id);
+        }
+        return postings;
+    }
+}
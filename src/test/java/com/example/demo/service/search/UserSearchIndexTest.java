@@ -0,0 +1,105 @@
+package com.example.demo.service.search;
+
+import com.example.demo.domain.dto.response.UserResponse;
+import com.example.demo.domain.event.UserChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSearchIndexTest {
+
+    private SingleConnectionDataSource dataSource;
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:search-index", "sa", "", true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, first_name VARCHAR(50),"
+                + " last_name VARCHAR(50), email VARCHAR(100))");
+        jdbcTemplate.update("INSERT INTO users VALUES (1, 'Alice', 'Smith', 'alice@example.com'),"
+                + " (2, 'Bob', 'Smithers', 'bob@example.org'), (3, 'Carol', 'Jones', 'carol@example.com')");
+        index = new UserSearchIndex(dataSource, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void leavesSearchesToTheDatabaseUntilBuilt() {
+        assertThat(index.search("smith")).isEmpty();
+    }
+
+    @Test
+    void findsSubstringsOfEveryFieldIgnoringCase() {
+        index.build();
+
+        assertThat(index.search("SMITH")).hasValueSatisfying(ids -> assertThat(ids).containsExactly(1, 2));
+        assertThat(index.search("example.com")).hasValueSatisfying(ids -> assertThat(ids).containsExactly(1, 3));
+        assertThat(index.search(" carol ")).hasValueSatisfying(ids -> assertThat(ids).containsExactly(3));
+    }
+
+    @Test
+    void leavesShortAndWildcardQueriesToTheDatabase() {
+        index.build();
+
+        assertThat(index.search("sm")).isEmpty();
+        assertThat(index.search("  a ")).isEmpty();
+        assertThat(index.search("smi%")).isEmpty();
+        assertThat(index.search("smi_h")).isEmpty();
+        assertThat(index.search(null)).isEmpty();
+    }
+
+    @Test
+    void matchesNeitherUnknownTrigramsNorTrigramsOutOfOrder() {
+        index.build();
+
+        assertThat(index.search("zzz")).hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+        // "smi" and "ith" both occur, "smiith" does not
+        assertThat(index.search("smiith")).hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+        // Spans first and last name of Alice
+        assertThat(index.search("cesmi")).hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+    }
+
+    @Test
+    void followsCreatesUpdatesAndDeletes() {
+        index.build();
+
+        index.onUserChanged(changed(UserChangedEvent.Type.CREATED, 4, "Dave", "Smithson", "dave@example.net"));
+        assertThat(index.search("smith")).hasValueSatisfying(ids -> assertThat(ids).containsExactly(1, 2, 4));
+
+        index.onUserChanged(changed(UserChangedEvent.Type.UPDATED, 2, "Bob", "Brown", "bob@example.org"));
+        assertThat(index.search("smith")).hasValueSatisfying(ids -> assertThat(ids).containsExactly(1, 4));
+        assertThat(index.search("brown")).hasValueSatisfying(ids -> assertThat(ids).containsExactly(2));
+
+        index.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.DELETED, 1L, null));
+        assertThat(index.search("smith")).hasValueSatisfying(ids -> assertThat(ids).containsExactly(4));
+        assertThat(index.search("alice")).hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+    }
+
+    @Test
+    void ignoresWritesWhenDisabled() {
+        UserSearchIndex disabled = new UserSearchIndex(dataSource, false);
+        disabled.build();
+        disabled.onUserChanged(changed(UserChangedEvent.Type.CREATED, 4, "Dave", "Smithson", "dave@example.net"));
+
+        assertThat(disabled.search("smith")).isEmpty();
+    }
+
+    private static UserChangedEvent changed(UserChangedEvent.Type type, long id, String firstName, String lastName,
+                                            String email) {
+        UserResponse user = UserResponse.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+        return new UserChangedEvent(type, id, user);
+    }
+}
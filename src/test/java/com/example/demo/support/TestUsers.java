@@ -0,0 +1,43 @@
+package com.example.demo.support;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+/**
+ * Generated users for load tests and benchmarks, shared so they measure the same data.
+ */
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    /**
+     * Inserts {@code rows} users with ids 1..rows in one statement and refreshes the
+     * statistics. Names cycle through small lists so a name search matches a fixed
+     * fraction of the table; user X is created X seconds after {@code createdFrom}.
+     */
+    public static void insert(Connection connection, int rows, LocalDateTime createdFrom) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("""
+                INSERT INTO users (id, first_name, last_name, email, phone_number, status, created_at, version)
+                SELECT X,
+                       ARRAY['John', 'Jane', 'Ann', 'Budi', 'Siti', 'Maria', 'Ahmad', 'Lee'][MOD(X, 8) + 1],
+                       ARRAY['Doe', 'Smith', 'Lee', 'Santoso', 'Wijaya', 'Garcia', 'Tan'][MOD(X, 7) + 1],
+                       'user' || X || '@example.com',
+                       '+62' || (800000000 + X),
+                       CASE WHEN MOD(X, 2) = 0 THEN 'ACTIVE' ELSE 'INACTIVE' END,
+                       DATEADD(SECOND, X, CAST(? AS TIMESTAMP)),
+                       0
+                FROM SYSTEM_RANGE(1, ?)
+                """)) {
+            insert.setObject(1, createdFrom);
+            insert.setInt(2, rows);
+            insert.executeUpdate();
+        }
+        try (Statement analyze = connection.createStatement()) {
+            analyze.execute("ANALYZE");
+        }
+    }
+}